@@ -32,5 +32,5 @@ try {
 
 Write-Host ""
 Write-Host "🎉 Migration terminée!" -ForegroundColor Green
-Write-Host "La table 'tokens' a été créée avec succès." -ForegroundColor Cyan
+Write-Host "La table 'tokens' et l'index d'unicité des tokens actifs sont à jour (doublons actifs révoqués)." -ForegroundColor Cyan
 Write-Host "Vous pouvez maintenant redémarrer le backend pour utiliser la nouvelle gestion des tokens." -ForegroundColor Yellow 
\ No newline at end of file
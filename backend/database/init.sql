@@ -39,6 +39,12 @@ CREATE INDEX IF NOT EXISTS idx_numero_dossier ON patients(numero_dossier);
 CREATE INDEX IF NOT EXISTS idx_nss ON patients(numero_securite_sociale);
 CREATE INDEX IF NOT EXISTS idx_nfc ON patients(numero_nfc);
 CREATE INDEX IF NOT EXISTS idx_nom_prenom ON patients(nom, prenom);
+-- Index de pagination keyset (GET /patients), avec et sans filtre actif
+CREATE INDEX IF NOT EXISTS idx_patients_actif_id ON patients(actif, id);
+CREATE INDEX IF NOT EXISTS idx_patients_nom_keyset ON patients(nom, prenom, id);
+CREATE INDEX IF NOT EXISTS idx_patients_actif_nom_keyset ON patients(actif, nom, prenom, id);
+CREATE INDEX IF NOT EXISTS idx_patients_date_creation_keyset ON patients(date_creation DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_patients_actif_date_creation_keyset ON patients(actif, date_creation DESC, id DESC);
 
 -- Table des dossiers médicaux
 CREATE TABLE IF NOT EXISTS dossiers_medicaux (
@@ -52,6 +58,7 @@ CREATE TABLE IF NOT EXISTS dossiers_medicaux (
     observations_generales TEXT,
     hash_contenu VARCHAR(64) NOT NULL,
     blockchain_txn_hash VARCHAR(255),
+    merkle_proof TEXT,
     date_creation TIMESTAMP NOT NULL,
     date_modification TIMESTAMP NOT NULL,
     professionnel_creation_id INTEGER NOT NULL,
@@ -78,6 +85,7 @@ CREATE TABLE IF NOT EXISTS consultations (
     prochain_rdv TIMESTAMP,
     hash_contenu VARCHAR(64) NOT NULL,
     blockchain_txn_hash VARCHAR(255),
+    merkle_proof TEXT,
     date_creation TIMESTAMP NOT NULL,
     date_modification TIMESTAMP NOT NULL,
     FOREIGN KEY (dossier_medical_id) REFERENCES dossiers_medicaux(id) ON DELETE CASCADE,
@@ -86,8 +94,83 @@ CREATE TABLE IF NOT EXISTS consultations (
 CREATE INDEX IF NOT EXISTS idx_dossier_medical_id ON consultations(dossier_medical_id);
 CREATE INDEX IF NOT EXISTS idx_professionnel_id ON consultations(professionnel_id);
 CREATE INDEX IF NOT EXISTS idx_date_consultation ON consultations(date_consultation);
+-- Index de la chronologie keyset par dossier (GET /consultations/timeline)
+CREATE INDEX IF NOT EXISTS idx_consultations_dossier_timeline ON consultations(dossier_medical_id, date_consultation DESC, id DESC);
 CREATE INDEX IF NOT EXISTS idx_blockchain_hash ON consultations(blockchain_txn_hash);
 
+-- Outbox des empreintes à ancrer sur la blockchain
+CREATE TABLE IF NOT EXISTS anchoring_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    record_type VARCHAR(32) NOT NULL,
+    record_id BIGINT NOT NULL,
+    hash_contenu VARCHAR(64) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error TEXT,
+    date_creation TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_anchoring_outbox_next_attempt ON anchoring_outbox(next_attempt_at, id);
+CREATE INDEX IF NOT EXISTS idx_anchoring_outbox_record ON anchoring_outbox(record_type, record_id);
+
+-- Métadonnées des transactions d'ancrage confirmées (cache de vérification)
+CREATE TABLE IF NOT EXISTS confirmed_transactions (
+    tx_hash VARCHAR(128) PRIMARY KEY,
+    merkle_root VARCHAR(64) NOT NULL,
+    confirmed_at TIMESTAMP NOT NULL
+);
+
+-- Contrôles complets des empreintes (reprise après arrêt) et écarts relevés
+CREATE TABLE IF NOT EXISTS integrity_sweeps (
+    id BIGSERIAL PRIMARY KEY,
+    status VARCHAR(16) NOT NULL,
+    record_type VARCHAR(32) NOT NULL,
+    last_id BIGINT NOT NULL DEFAULT 0,
+    checked BIGINT NOT NULL DEFAULT 0,
+    mismatches BIGINT NOT NULL DEFAULT 0,
+    started_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS integrity_mismatches (
+    id BIGSERIAL PRIMARY KEY,
+    sweep_id BIGINT REFERENCES integrity_sweeps(id) ON DELETE CASCADE, -- NULL : écart relevé par la migration des empreintes
+    record_type VARCHAR(32) NOT NULL,
+    record_id BIGINT NOT NULL,
+    stored_hash VARCHAR(64),
+    computed_hash VARCHAR(64) NOT NULL,
+    detected_at TIMESTAMP NOT NULL
+);
+ALTER TABLE integrity_mismatches ALTER COLUMN sweep_id DROP NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_integrity_mismatches_sweep ON integrity_mismatches(sweep_id, id);
+
+-- Tokens JWT (sessions et refresh tokens)
+CREATE TABLE IF NOT EXISTS tokens (
+    id BIGSERIAL PRIMARY KEY,
+    token_value VARCHAR(500) NOT NULL UNIQUE,
+    user_email VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    revoked BOOLEAN NOT NULL DEFAULT FALSE,
+    expired BOOLEAN NOT NULL DEFAULT FALSE,
+    rotated BOOLEAN NOT NULL DEFAULT FALSE,
+    user_agent VARCHAR(500),
+    ip_address VARCHAR(45)
+);
+CREATE INDEX IF NOT EXISTS idx_tokens_user_email ON tokens(user_email);
+CREATE INDEX IF NOT EXISTS idx_tokens_expires_at ON tokens(expires_at);
+CREATE INDEX IF NOT EXISTS idx_tokens_valid ON tokens(user_email, revoked, expired, expires_at);
+
+-- Un seul token actif par utilisateur, garanti par la base même en cas de connexions concurrentes
+-- (les doublons éventuels sont révoqués avant la création de l'index ; base existante : database/tokens.sql)
+UPDATE tokens SET revoked = TRUE WHERE id IN (
+    SELECT id FROM (
+        SELECT id, ROW_NUMBER() OVER (PARTITION BY user_email ORDER BY created_at DESC, id DESC) AS rang
+        FROM tokens WHERE revoked = FALSE AND expired = FALSE
+    ) classes WHERE rang > 1
+);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_tokens_one_active_per_user ON tokens(user_email) WHERE revoked = FALSE AND expired = FALSE;
+
 -- Insertion de professionnels de santé
 INSERT INTO professionnels (
     email, password, nom, prenom, specialite, numero_rpps, role, date_creation, derniere_connexion, actif
@@ -114,36 +197,38 @@ INSERT INTO patients (
 ('PA-2024-010', 'Lefevre', 'François', '1978-01-20', 'M', '741 Rue du Faubourg Saint-Honoré, 75008 Paris', '0123456798', 'francois.lefevre@email.com', '123456789012354', 'O+', 'nfc-010-francois', NOW() - INTERVAL '1 month', NOW() - INTERVAL '2 days', TRUE)
 ON CONFLICT (numero_dossier) DO NOTHING;
 
--- Insertion de dossiers médicaux
+-- Insertion de dossiers médicaux (hash_contenu : empreinte RecordHasher v1 de chaque dossier)
 INSERT INTO dossiers_medicaux (
     patient_id, antecedents_medicaux, antecedents_chirurgicaux, antecedents_familiaux, traitements_en_cours, allergies, observations_generales, hash_contenu, date_creation, date_modification, professionnel_creation_id
 ) VALUES 
-(1, 'Douleurs lombaires chroniques, Migraines occasionnelles', 'Appendicectomie (2010)', 'Diabète type 2 (père), Hypertension (mère)', 'Paracétamol 500mg si nécessaire', 'Pénicilline (Modérée)', 'Patient en bonne santé générale, surveillance des lombalgies', 'hash_001_sophie_laurent_2024', NOW() - INTERVAL '1 year', NOW() - INTERVAL '2 days', 1),
-(2, 'Hypertension artérielle, Cholestérol élevé', 'Pose de stent coronarien (2018)', 'Infarctus (père), Diabète (mère)', 'Amlodipine 5mg/j, Atorvastatine 20mg/j', 'Aucune', 'Surveillance tensionnelle régulière, régime pauvre en sel', 'hash_002_marc_dupont_2024', NOW() - INTERVAL '1 year', NOW() - INTERVAL '1 week', 1),
-(3, 'Anxiété, Troubles du sommeil', 'Aucun', 'Dépression (mère)', 'Alprazolam 0.25mg si nécessaire', 'Arachides (Sévère), Latex (Modérée)', 'Symptômes anxieux améliorés, suivi psychologique recommandé', 'hash_003_emilie_moreau_2024', NOW() - INTERVAL '1 year', NOW() - INTERVAL '3 days', 1),
-(4, 'Diabète type 2, Rétinopathie diabétique', 'Chirurgie de la cataracte (2022)', 'Diabète (père et mère)', 'Metformine 1000mg 2x/j, Insuline glargine', 'Aucune', 'Équilibre glycémique correct, surveillance ophtalmologique', 'hash_004_thomas_petit_2024', NOW() - INTERVAL '1 year', NOW() - INTERVAL '5 days', 1),
-(5, 'Asthme, Rhinite allergique', 'Aucun', 'Asthme (père)', 'Ventoline si nécessaire, Fostair 200/6', 'Acariens, Pollens (Sévère)', 'Asthme bien contrôlé, éviction des allergènes', 'hash_005_claire_martin_2024', NOW() - INTERVAL '8 months', NOW() - INTERVAL '1 day', 1),
-(6, 'Arthrose du genou, Hypertension', 'Arthroscopie genou droit (2019)', 'Arthrose (mère)', 'Ibuprofène 400mg si nécessaire, Amlodipine 5mg/j', 'Aucune', 'Douleurs articulaires modérées, activité physique adaptée', 'hash_006_pierre_rousseau_2024', NOW() - INTERVAL '6 months', NOW() - INTERVAL '4 days', 1),
-(7, 'Dépression, Troubles alimentaires', 'Aucun', 'Dépression (mère)', 'Sertraline 50mg/j', 'Aucune', 'Amélioration de l''humeur, suivi psychiatrique', 'hash_007_anne_leroy_2024', NOW() - INTERVAL '4 months', NOW() - INTERVAL '6 hours', 1),
-(8, 'BPCO, Insuffisance cardiaque', 'Pose de pacemaker (2020)', 'BPCO (père)', 'Ventoline, Symbicort, Furosémide 40mg/j', 'Aucune', 'Fonction respiratoire stable, surveillance cardiaque', 'hash_008_michel_simon_2024', NOW() - INTERVAL '3 months', NOW() - INTERVAL '12 hours', 1),
-(9, 'Hypothyroïdie, Anémie ferriprive', 'Thyroïdectomie partielle (2017)', 'Hypothyroïdie (mère)', 'Lévothyroxine 75µg/j, Fer 80mg/j', 'Aucune', 'TSH normalisée, ferritine en amélioration', 'hash_009_isabelle_garcia_2024', NOW() - INTERVAL '2 months', NOW() - INTERVAL '1 day', 1),
-(10, 'Ulcère gastrique, Reflux gastro-œsophagien', 'Aucun', 'Cancer gastrique (père)', 'Oméprazole 20mg/j', 'Aucune', 'Symptômes bien contrôlés, régime adapté', 'hash_010_francois_lefevre_2024', NOW() - INTERVAL '1 month', NOW() - INTERVAL '2 days', 1)
+(1, 'Douleurs lombaires chroniques, Migraines occasionnelles', 'Appendicectomie (2010)', 'Diabète type 2 (père), Hypertension (mère)', 'Paracétamol 500mg si nécessaire', 'Pénicilline (Modérée)', 'Patient en bonne santé générale, surveillance des lombalgies', 'f7c74e0a0821ad3e3eac691da967fafd09ce59d2c1fa87e51008e513c853357c', NOW() - INTERVAL '1 year', NOW() - INTERVAL '2 days', 1),
+(2, 'Hypertension artérielle, Cholestérol élevé', 'Pose de stent coronarien (2018)', 'Infarctus (père), Diabète (mère)', 'Amlodipine 5mg/j, Atorvastatine 20mg/j', 'Aucune', 'Surveillance tensionnelle régulière, régime pauvre en sel', '7abf1c83ec3ac71329e1f392f408e6697376cb4455b23d85e016f18ab97cf671', NOW() - INTERVAL '1 year', NOW() - INTERVAL '1 week', 1),
+(3, 'Anxiété, Troubles du sommeil', 'Aucun', 'Dépression (mère)', 'Alprazolam 0.25mg si nécessaire', 'Arachides (Sévère), Latex (Modérée)', 'Symptômes anxieux améliorés, suivi psychologique recommandé', '3b40aff9d003816e50c77413c8ad681629d8ffa73cec8841fd97e1200dd92b52', NOW() - INTERVAL '1 year', NOW() - INTERVAL '3 days', 1),
+(4, 'Diabète type 2, Rétinopathie diabétique', 'Chirurgie de la cataracte (2022)', 'Diabète (père et mère)', 'Metformine 1000mg 2x/j, Insuline glargine', 'Aucune', 'Équilibre glycémique correct, surveillance ophtalmologique', 'b6d7f1eae4b6ee73df235265e8229ac90292df69cdf89479901e3505a2aa7d99', NOW() - INTERVAL '1 year', NOW() - INTERVAL '5 days', 1),
+(5, 'Asthme, Rhinite allergique', 'Aucun', 'Asthme (père)', 'Ventoline si nécessaire, Fostair 200/6', 'Acariens, Pollens (Sévère)', 'Asthme bien contrôlé, éviction des allergènes', '06b59640d37d51beba7d6ffcacf7ffb25e5fdcd5e47b44a0691ad7885cb757a0', NOW() - INTERVAL '8 months', NOW() - INTERVAL '1 day', 1),
+(6, 'Arthrose du genou, Hypertension', 'Arthroscopie genou droit (2019)', 'Arthrose (mère)', 'Ibuprofène 400mg si nécessaire, Amlodipine 5mg/j', 'Aucune', 'Douleurs articulaires modérées, activité physique adaptée', '6c9b8c298757cb46e845fe4adcaec82e67252623ad2d9d8bbdda9050104558af', NOW() - INTERVAL '6 months', NOW() - INTERVAL '4 days', 1),
+(7, 'Dépression, Troubles alimentaires', 'Aucun', 'Dépression (mère)', 'Sertraline 50mg/j', 'Aucune', 'Amélioration de l''humeur, suivi psychiatrique', '937ddfa4ac9bd69b0c4a67bf4cf1c20d52ef26adedf4e6e37996369bf3c0428f', NOW() - INTERVAL '4 months', NOW() - INTERVAL '6 hours', 1),
+(8, 'BPCO, Insuffisance cardiaque', 'Pose de pacemaker (2020)', 'BPCO (père)', 'Ventoline, Symbicort, Furosémide 40mg/j', 'Aucune', 'Fonction respiratoire stable, surveillance cardiaque', 'e4636fe045dfa685a742e5d4eef7a4a983e631d78860df83cbfcdf4d95c68b59', NOW() - INTERVAL '3 months', NOW() - INTERVAL '12 hours', 1),
+(9, 'Hypothyroïdie, Anémie ferriprive', 'Thyroïdectomie partielle (2017)', 'Hypothyroïdie (mère)', 'Lévothyroxine 75µg/j, Fer 80mg/j', 'Aucune', 'TSH normalisée, ferritine en amélioration', 'f12023af24a959902f3205bab4afac517f16db611881e85c7f42cd177b3f11f9', NOW() - INTERVAL '2 months', NOW() - INTERVAL '1 day', 1),
+(10, 'Ulcère gastrique, Reflux gastro-œsophagien', 'Aucun', 'Cancer gastrique (père)', 'Oméprazole 20mg/j', 'Aucune', 'Symptômes bien contrôlés, régime adapté', 'f0f27c9dd4b9f14685ed1c55fd4c593752b385c3ad6e6691ad224612cd44e82a', NOW() - INTERVAL '1 month', NOW() - INTERVAL '2 days', 1)
 ON CONFLICT (patient_id) DO NOTHING;
 
 -- Insertion de consultations récentes
+-- Les dates sont relatives à NOW() : l'empreinte v1 ne peut pas être fixée ici. La valeur de remplissage
+-- repeat('0', 64) est remplacée au démarrage par la migration des empreintes (HashBackfill, profil dev).
 INSERT INTO consultations (
     dossier_medical_id, professionnel_id, date_consultation, motif_consultation, examen_clinique, diagnostic, traitement_prescrit, ordonnance, observations, prochain_rdv, hash_contenu, date_creation, date_modification
 ) VALUES 
-(1, 1, NOW() - INTERVAL '2 days', 'Douleurs lombaires persistantes', 'Douleur à la palpation L4-L5, limitation de la flexion', 'Lombalgie chronique mécanique', 'Kinésithérapie 10 séances, Paracétamol 1g 3x/j', 'Paracétamol 500mg - 1 comprimé 3 fois par jour pendant 7 jours', 'Amélioration des douleurs, poursuite de la kinésithérapie', NOW() + INTERVAL '1 month', 'hash_consult_001_2024', NOW() - INTERVAL '2 days', NOW() - INTERVAL '2 days'),
-(2, 1, NOW() - INTERVAL '1 week', 'Contrôle tensionnel', 'TA: 135/85 mmHg, FC: 72/min', 'Hypertension bien contrôlée', 'Poursuite du traitement actuel', 'Amlodipine 5mg - 1 comprimé par jour', 'Tension artérielle stabilisée, surveillance trimestrielle', NOW() + INTERVAL '3 months', 'hash_consult_002_2024', NOW() - INTERVAL '1 week', NOW() - INTERVAL '1 week'),
-(3, 1, NOW() - INTERVAL '3 days', 'Anxiété et troubles du sommeil', 'Patient calme, pas de signes de dépression', 'Anxiété généralisée améliorée', 'Poursuite de l''Alprazolam si nécessaire', 'Alprazolam 0.25mg - 1 comprimé au coucher si nécessaire', 'Symptômes anxieux en nette amélioration', NOW() + INTERVAL '2 months', 'hash_consult_003_2024', NOW() - INTERVAL '3 days', NOW() - INTERVAL '3 days'),
-(4, 1, NOW() - INTERVAL '5 days', 'Contrôle diabète', 'Glycémie à jeun: 1.26 g/l, HbA1c: 6.8%', 'Diabète type 2 équilibré', 'Ajustement de l''insuline', 'Insuline glargine - 12 unités le soir', 'Équilibre glycémique satisfaisant', NOW() + INTERVAL '1 month', 'hash_consult_004_2024', NOW() - INTERVAL '5 days', NOW() - INTERVAL '5 days'),
-(5, 1, NOW() - INTERVAL '1 day', 'Crise d''asthme', 'Sibilances bilatérales, dyspnée modérée', 'Crise d''asthme modérée', 'Ventoline 2 bouffées 4x/j pendant 48h', 'Ventoline 100µg - 2 bouffées 4 fois par jour pendant 48h', 'Amélioration rapide sous Ventoline', NOW() + INTERVAL '1 week', 'hash_consult_005_2024', NOW() - INTERVAL '1 day', NOW() - INTERVAL '1 day'),
-(6, 1, NOW() - INTERVAL '4 days', 'Douleur genou droit', 'Douleur à la palpation, limitation de la flexion', 'Poussée d''arthrose du genou droit', 'Anti-inflammatoires, repos relatif', 'Ibuprofène 400mg - 1 comprimé 3 fois par jour pendant 5 jours', 'Douleurs en amélioration, éviter les escaliers', NOW() + INTERVAL '2 weeks', 'hash_consult_006_2024', NOW() - INTERVAL '4 days', NOW() - INTERVAL '4 days'),
-(7, 1, NOW() - INTERVAL '6 hours', 'Suivi dépression', 'Humeur améliorée, pas d''idées suicidaires', 'Dépression en rémission', 'Poursuite de la Sertraline', 'Sertraline 50mg - 1 comprimé par jour', 'Nette amélioration de l''humeur et du sommeil', NOW() + INTERVAL '1 month', 'hash_consult_007_2024', NOW() - INTERVAL '6 hours', NOW() - INTERVAL '6 hours'),
-(8, 1, NOW() - INTERVAL '12 hours', 'Essoufflement', 'Crépitants bilatéraux, œdèmes des membres inférieurs', 'Décompensation cardiaque modérée', 'Augmentation du Furosémide', 'Furosémide 80mg - 1 comprimé par jour pendant 3 jours', 'Amélioration de l''essoufflement sous diurétiques', NOW() + INTERVAL '1 week', 'hash_consult_008_2024', NOW() - INTERVAL '12 hours', NOW() - INTERVAL '12 hours'),
-(9, 1, NOW() - INTERVAL '1 day', 'Contrôle thyroïde', 'Pas de goitre, pas de signes d''hyperthyroïdie', 'Hypothyroïdie équilibrée', 'Ajustement de la Lévothyroxine', 'Lévothyroxine 75µg - 1 comprimé par jour', 'TSH normalisée, bien tolérance', NOW() + INTERVAL '3 months', 'hash_consult_009_2024', NOW() - INTERVAL '1 day', NOW() - INTERVAL '1 day'),
-(10, 1, NOW() - INTERVAL '2 days', 'Douleurs épigastriques', 'Douleur à la palpation épigastrique', 'Ulcère gastrique en cicatrisation', 'Poursuite de l''Oméprazole', 'Oméprazole 20mg - 1 comprimé par jour pendant 1 mois', 'Douleurs en nette amélioration', NOW() + INTERVAL '1 month', 'hash_consult_010_2024', NOW() - INTERVAL '2 days', NOW() - INTERVAL '2 days'),
-(1, 2, NOW() - INTERVAL '1 month', 'Consultation cardiologique', 'Auscultation normale, pas de signes d''insuffisance cardiaque', 'Pas de pathologie cardiaque', 'Aucun traitement cardiaque nécessaire', 'Aucune ordonnance', 'Cœur normal, surveillance tensionnelle', NOW() + INTERVAL '6 months', 'hash_consult_011_2024', NOW() - INTERVAL '1 month', NOW() - INTERVAL '1 month'),
-(3, 3, NOW() - INTERVAL '2 weeks', 'Éruption cutanée', 'Plaques érythémateuses prurigineuses', 'Urticaire allergique', 'Antihistaminiques', 'Cétirizine 10mg - 1 comprimé par jour pendant 7 jours', 'Éruption en régression, éviter les allergènes', NOW() + INTERVAL '1 month', 'hash_consult_012_2024', NOW() - INTERVAL '2 weeks', NOW() - INTERVAL '2 weeks')
+(1, 1, NOW() - INTERVAL '2 days', 'Douleurs lombaires persistantes', 'Douleur à la palpation L4-L5, limitation de la flexion', 'Lombalgie chronique mécanique', 'Kinésithérapie 10 séances, Paracétamol 1g 3x/j', 'Paracétamol 500mg - 1 comprimé 3 fois par jour pendant 7 jours', 'Amélioration des douleurs, poursuite de la kinésithérapie', NOW() + INTERVAL '1 month', repeat('0', 64), NOW() - INTERVAL '2 days', NOW() - INTERVAL '2 days'),
+(2, 1, NOW() - INTERVAL '1 week', 'Contrôle tensionnel', 'TA: 135/85 mmHg, FC: 72/min', 'Hypertension bien contrôlée', 'Poursuite du traitement actuel', 'Amlodipine 5mg - 1 comprimé par jour', 'Tension artérielle stabilisée, surveillance trimestrielle', NOW() + INTERVAL '3 months', repeat('0', 64), NOW() - INTERVAL '1 week', NOW() - INTERVAL '1 week'),
+(3, 1, NOW() - INTERVAL '3 days', 'Anxiété et troubles du sommeil', 'Patient calme, pas de signes de dépression', 'Anxiété généralisée améliorée', 'Poursuite de l''Alprazolam si nécessaire', 'Alprazolam 0.25mg - 1 comprimé au coucher si nécessaire', 'Symptômes anxieux en nette amélioration', NOW() + INTERVAL '2 months', repeat('0', 64), NOW() - INTERVAL '3 days', NOW() - INTERVAL '3 days'),
+(4, 1, NOW() - INTERVAL '5 days', 'Contrôle diabète', 'Glycémie à jeun: 1.26 g/l, HbA1c: 6.8%', 'Diabète type 2 équilibré', 'Ajustement de l''insuline', 'Insuline glargine - 12 unités le soir', 'Équilibre glycémique satisfaisant', NOW() + INTERVAL '1 month', repeat('0', 64), NOW() - INTERVAL '5 days', NOW() - INTERVAL '5 days'),
+(5, 1, NOW() - INTERVAL '1 day', 'Crise d''asthme', 'Sibilances bilatérales, dyspnée modérée', 'Crise d''asthme modérée', 'Ventoline 2 bouffées 4x/j pendant 48h', 'Ventoline 100µg - 2 bouffées 4 fois par jour pendant 48h', 'Amélioration rapide sous Ventoline', NOW() + INTERVAL '1 week', repeat('0', 64), NOW() - INTERVAL '1 day', NOW() - INTERVAL '1 day'),
+(6, 1, NOW() - INTERVAL '4 days', 'Douleur genou droit', 'Douleur à la palpation, limitation de la flexion', 'Poussée d''arthrose du genou droit', 'Anti-inflammatoires, repos relatif', 'Ibuprofène 400mg - 1 comprimé 3 fois par jour pendant 5 jours', 'Douleurs en amélioration, éviter les escaliers', NOW() + INTERVAL '2 weeks', repeat('0', 64), NOW() - INTERVAL '4 days', NOW() - INTERVAL '4 days'),
+(7, 1, NOW() - INTERVAL '6 hours', 'Suivi dépression', 'Humeur améliorée, pas d''idées suicidaires', 'Dépression en rémission', 'Poursuite de la Sertraline', 'Sertraline 50mg - 1 comprimé par jour', 'Nette amélioration de l''humeur et du sommeil', NOW() + INTERVAL '1 month', repeat('0', 64), NOW() - INTERVAL '6 hours', NOW() - INTERVAL '6 hours'),
+(8, 1, NOW() - INTERVAL '12 hours', 'Essoufflement', 'Crépitants bilatéraux, œdèmes des membres inférieurs', 'Décompensation cardiaque modérée', 'Augmentation du Furosémide', 'Furosémide 80mg - 1 comprimé par jour pendant 3 jours', 'Amélioration de l''essoufflement sous diurétiques', NOW() + INTERVAL '1 week', repeat('0', 64), NOW() - INTERVAL '12 hours', NOW() - INTERVAL '12 hours'),
+(9, 1, NOW() - INTERVAL '1 day', 'Contrôle thyroïde', 'Pas de goitre, pas de signes d''hyperthyroïdie', 'Hypothyroïdie équilibrée', 'Ajustement de la Lévothyroxine', 'Lévothyroxine 75µg - 1 comprimé par jour', 'TSH normalisée, bien tolérance', NOW() + INTERVAL '3 months', repeat('0', 64), NOW() - INTERVAL '1 day', NOW() - INTERVAL '1 day'),
+(10, 1, NOW() - INTERVAL '2 days', 'Douleurs épigastriques', 'Douleur à la palpation épigastrique', 'Ulcère gastrique en cicatrisation', 'Poursuite de l''Oméprazole', 'Oméprazole 20mg - 1 comprimé par jour pendant 1 mois', 'Douleurs en nette amélioration', NOW() + INTERVAL '1 month', repeat('0', 64), NOW() - INTERVAL '2 days', NOW() - INTERVAL '2 days'),
+(1, 2, NOW() - INTERVAL '1 month', 'Consultation cardiologique', 'Auscultation normale, pas de signes d''insuffisance cardiaque', 'Pas de pathologie cardiaque', 'Aucun traitement cardiaque nécessaire', 'Aucune ordonnance', 'Cœur normal, surveillance tensionnelle', NOW() + INTERVAL '6 months', repeat('0', 64), NOW() - INTERVAL '1 month', NOW() - INTERVAL '1 month'),
+(3, 3, NOW() - INTERVAL '2 weeks', 'Éruption cutanée', 'Plaques érythémateuses prurigineuses', 'Urticaire allergique', 'Antihistaminiques', 'Cétirizine 10mg - 1 comprimé par jour pendant 7 jours', 'Éruption en régression, éviter les allergènes', NOW() + INTERVAL '1 month', repeat('0', 64), NOW() - INTERVAL '2 weeks', NOW() - INTERVAL '2 weeks')
 ON CONFLICT DO NOTHING; 
\ No newline at end of file
@@ -1,4 +1,5 @@
--- Table pour stocker les tokens JWT
+-- Migration de la table des tokens JWT pour une base existante (init.sql n'est exécuté que sur un volume vide).
+-- Chaque instruction est idempotente : le script peut être rejoué.
 CREATE TABLE IF NOT EXISTS tokens (
     id BIGSERIAL PRIMARY KEY,
     token_value VARCHAR(500) NOT NULL UNIQUE,
@@ -7,23 +8,25 @@ CREATE TABLE IF NOT EXISTS tokens (
     expires_at TIMESTAMP NOT NULL,
     revoked BOOLEAN NOT NULL DEFAULT FALSE,
     expired BOOLEAN NOT NULL DEFAULT FALSE,
+    rotated BOOLEAN NOT NULL DEFAULT FALSE,
     user_agent VARCHAR(500),
     ip_address VARCHAR(45)
 );
 
+-- Refresh token révoqué par rotation : seule sa réutilisation révoque toutes les sessions de l'utilisateur
+ALTER TABLE tokens ADD COLUMN IF NOT EXISTS rotated BOOLEAN NOT NULL DEFAULT FALSE;
+
 -- Index pour améliorer les performances
 CREATE INDEX IF NOT EXISTS idx_tokens_user_email ON tokens(user_email);
-CREATE INDEX IF NOT EXISTS idx_tokens_token_value ON tokens(token_value);
 CREATE INDEX IF NOT EXISTS idx_tokens_expires_at ON tokens(expires_at);
 CREATE INDEX IF NOT EXISTS idx_tokens_valid ON tokens(user_email, revoked, expired, expires_at);
 
--- Commentaires
-COMMENT ON TABLE tokens IS 'Table pour stocker les tokens JWT avec validation en base de données';
-COMMENT ON COLUMN tokens.token_value IS 'Valeur du token JWT';
-COMMENT ON COLUMN tokens.user_email IS 'Email de l''utilisateur propriétaire du token';
-COMMENT ON COLUMN tokens.created_at IS 'Date de création du token';
-COMMENT ON COLUMN tokens.expires_at IS 'Date d''expiration du token';
-COMMENT ON COLUMN tokens.revoked IS 'Indique si le token a été révoqué';
-COMMENT ON COLUMN tokens.expired IS 'Indique si le token a expiré';
-COMMENT ON COLUMN tokens.user_agent IS 'User-Agent du navigateur qui a généré le token';
-COMMENT ON COLUMN tokens.ip_address IS 'Adresse IP qui a généré le token'; 
\ No newline at end of file
+-- Un seul token actif par utilisateur, garanti par la base même en cas de connexions concurrentes
+-- (les doublons éventuels sont révoqués avant la création de l'index)
+UPDATE tokens SET revoked = TRUE WHERE id IN (
+    SELECT id FROM (
+        SELECT id, ROW_NUMBER() OVER (PARTITION BY user_email ORDER BY created_at DESC, id DESC) AS rang
+        FROM tokens WHERE revoked = FALSE AND expired = FALSE
+    ) classes WHERE rang > 1
+);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_tokens_one_active_per_user ON tokens(user_email) WHERE revoked = FALSE AND expired = FALSE;
@@ -3,10 +3,14 @@ package com.nfc4care.controller;
 import com.nfc4care.dto.AuthRequest;
 import com.nfc4care.dto.AuthResponse;
 import com.nfc4care.service.AuthService;
+import com.nfc4care.service.LoginThrottledException;
+import com.nfc4care.service.PasswordHashingSaturatedException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -25,9 +29,17 @@ public class AuthController {
         log.info("Tentative de connexion pour l'utilisateur: {}", request.getEmail());
         
         try {
-            AuthResponse response = authService.authenticate(request);
+            AuthResponse response = authService.authenticate(request, httpRequest.getRemoteAddr());
             log.info("Connexion réussie pour l'utilisateur: {}", request.getEmail());
             return ResponseEntity.ok(response);
+        } catch (LoginThrottledException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
+        } catch (PasswordHashingSaturatedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
         } catch (Exception e) {
             log.error("Échec de connexion pour l'utilisateur: {}", request.getEmail(), e);
             return ResponseEntity.badRequest().build();
@@ -49,6 +61,29 @@ public class AuthController {
         }
     }
     
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody Map<String, String> request, HttpServletRequest httpRequest) {
+        String refreshToken = request.get("refreshToken");
+        
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        try {
+            AuthResponse response = authService.refresh(refreshToken, httpRequest.getHeader("User-Agent"), httpRequest.getRemoteAddr());
+            log.info("Tokens rafraîchis pour l'utilisateur: {}", response.getEmail());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Échec du rafraîchissement du token: {}", e.getMessage());
+            return ResponseEntity.status(401)
+                .body(Map.of(
+                    "success", false,
+                    "error", "Refresh token invalide",
+                    "message", "Votre session a expiré. Veuillez vous reconnecter."
+                ));
+        }
+    }
+    
     @GetMapping("/validate")
     public ResponseEntity<?> validateToken(@RequestHeader("Authorization") String token) {
         log.info("Validation du token: {}", token.substring(0, Math.min(20, token.length())));
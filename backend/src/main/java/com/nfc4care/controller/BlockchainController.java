@@ -1,13 +1,24 @@
 package com.nfc4care.controller;
 
-import com.nfc4care.service.CardanoService;
+import com.nfc4care.dto.IntegrityBatchRequest;
+import com.nfc4care.dto.IntegrityReport;
+import com.nfc4care.dto.IntegritySweepStatus;
+import com.nfc4care.service.AnchoredRecordType;
+import com.nfc4care.service.IntegritySweepService;
+import com.nfc4care.service.IntegrityVerificationService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/blockchain")
@@ -15,20 +26,29 @@ import java.util.Map;
 @Slf4j
 public class BlockchainController {
     
-    private final CardanoService cardanoService;
+    private final IntegrityVerificationService integrityVerificationService;
+    private final IntegritySweepService integritySweepService;
     
     @GetMapping("/verify/{id}")
-    public ResponseEntity<Map<String, Object>> verifyIntegrity(@PathVariable String id) {
-        log.info("Vérification de l'intégrité pour l'ID: {}", id);
+    public ResponseEntity<Map<String, Object>> verifyIntegrity(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "CONSULTATION") AnchoredRecordType type) {
+        log.info("Vérification de l'intégrité pour l'ID: {} ({})", id, type);
         
         try {
-            // Cette implémentation est simplifiée
-            // En production, vous devriez récupérer l'entité par ID et vérifier son hash
-            boolean isValid = cardanoService.verifyTransaction(id, "expected_hash");
+            Optional<IntegrityReport> report = integrityVerificationService.verify(type, id);
+            if (report.isEmpty()) {
+                log.info("❌ Enregistrement non trouvé");
+                return ResponseEntity.notFound().build();
+            }
             
             Map<String, Object> response = new HashMap<>();
             response.put("id", id);
-            response.put("valid", isValid);
+            response.put("type", type);
+            response.put("valid", report.get().valid());
+            response.put("contentMatches", report.get().contentMatches());
+            response.put("anchored", report.get().anchored());
+            response.put("blockchainTxnHash", report.get().blockchainTxnHash());
             response.put("timestamp", System.currentTimeMillis());
             
             return ResponseEntity.ok(response);
@@ -37,4 +57,52 @@ public class BlockchainController {
             return ResponseEntity.badRequest().build();
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Vérifie un lot d'ids ; un résultat par id est envoyé (NDJSON) dès que sa vérification est terminée
+     */
+    @PostMapping(value = "/verify", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<IntegrityReport> verifyIntegrityBatch(@Valid @RequestBody IntegrityBatchRequest request) {
+        log.info("Vérification de l'intégrité de {} enregistrements ({})", request.getIds().size(), request.getType());
+        return integrityVerificationService.verifyAll(request.getType(), request.getIds())
+                .doOnError(e -> log.error("Erreur lors de la vérification de l'intégrité", e));
+    }
+    
+    /**
+     * Démarre un contrôle complet des empreintes, ou reprend le dernier contrôle non terminé
+     */
+    @PostMapping("/sweep")
+    public ResponseEntity<IntegritySweepStatus> startSweep() {
+        log.info("Démarrage du contrôle d'intégrité complet");
+        Optional<IntegritySweepStatus> status = integritySweepService.start();
+        if (status.isEmpty()) {
+            log.info("❌ Un contrôle d'intégrité est déjà en cours");
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.accepted().body(status.get());
+    }
+    
+    @PostMapping("/sweep/pause")
+    public ResponseEntity<Void> pauseSweep() {
+        log.info("Mise en pause du contrôle d'intégrité");
+        return integritySweepService.pause() ? ResponseEntity.accepted().build() : ResponseEntity.notFound().build();
+    }
+    
+    /**
+     * Avancement du dernier contrôle : table et id atteints, enregistrements contrôlés, écarts, débit
+     */
+    @GetMapping("/sweep")
+    public ResponseEntity<IntegritySweepStatus> getSweepStatus() {
+        return integritySweepService.latest()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/sweep/{sweepId}/mismatches")
+    public ResponseEntity<List<Map<String, Object>>> getSweepMismatches(
+            @PathVariable Long sweepId,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(integritySweepService.mismatches(sweepId, after, Math.min(Math.max(limit, 1), 1000)));
+    }
+}
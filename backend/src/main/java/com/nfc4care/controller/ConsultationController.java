@@ -1,15 +1,21 @@
 package com.nfc4care.controller;
 
+import com.nfc4care.dto.ConsultationDetail;
 import com.nfc4care.dto.ConsultationDto;
+import com.nfc4care.dto.ConsultationSummary;
+import com.nfc4care.dto.CursorPage;
 import com.nfc4care.entity.Consultation;
+import com.nfc4care.security.ProfessionnelPrincipal;
 import com.nfc4care.service.ConsultationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,11 +29,11 @@ public class ConsultationController {
     
     @GetMapping
     @PreAuthorize("hasRole('DOCTOR')")
-    public ResponseEntity<List<Consultation>> getAllConsultations(@RequestParam(required = false) String patientId) {
+    public ResponseEntity<List<ConsultationSummary>> getAllConsultations(@RequestParam(required = false) String patientId) {
         log.info("Récupération des consultations - patientId: {}", patientId);
         
         try {
-            List<Consultation> consultations;
+            List<ConsultationSummary> consultations;
             if (patientId != null && !patientId.trim().isEmpty()) {
                 consultations = consultationService.getConsultationsByPatientId(Long.parseLong(patientId));
             } else {
@@ -42,13 +48,43 @@ public class ConsultationController {
         }
     }
     
+    @GetMapping("/timeline")
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<CursorPage<ConsultationSummary>> getTimeline(
+            @RequestParam(required = false) Long dossierMedicalId,
+            @RequestParam(required = false) Long patientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ConsultationService.DEFAULT_TIMELINE_SIZE) int limit) {
+        log.info("Chronologie des consultations - dossier: {}, patient: {}, limit: {}", dossierMedicalId, patientId, limit);
+        
+        try {
+            Optional<Long> dossierId = dossierMedicalId != null
+                    ? Optional.of(dossierMedicalId)
+                    : Optional.ofNullable(patientId).flatMap(consultationService::getDossierMedicalIdForPatient);
+            if (dossierId.isEmpty()) {
+                log.info("❌ Dossier médical non trouvé");
+                return ResponseEntity.notFound().build();
+            }
+            
+            CursorPage<ConsultationSummary> page = consultationService.getTimeline(dossierId.get(), cursor, limit);
+            log.info("✅ {} consultations récupérées", page.getItems().size());
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            log.warn("❌ Paramètres de pagination invalides: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de la récupération de la chronologie", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('DOCTOR')")
-    public ResponseEntity<Consultation> getConsultationById(@PathVariable Long id) {
+    public ResponseEntity<ConsultationDetail> getConsultationById(@PathVariable Long id) {
         log.info("Récupération de la consultation avec l'ID: {}", id);
         
         try {
-            Optional<Consultation> consultation = consultationService.getConsultationById(id);
+            Optional<ConsultationDetail> consultation = consultationService.getConsultationById(id);
             if (consultation.isPresent()) {
                 log.info("✅ Consultation trouvée");
                 return ResponseEntity.ok(consultation.get());
@@ -64,13 +100,14 @@ public class ConsultationController {
     
     @PostMapping
     @PreAuthorize("hasRole('DOCTOR')")
-    public ResponseEntity<Consultation> createConsultation(@Valid @RequestBody ConsultationDto consultationDto) {
+    public ResponseEntity<ConsultationDetail> createConsultation(@Valid @RequestBody ConsultationDto consultationDto,
+                                                                 @AuthenticationPrincipal ProfessionnelPrincipal principal) {
         log.info("Création d'une nouvelle consultation pour le dossier: {}", consultationDto.getDossierMedicalId());
         
         try {
-            Consultation createdConsultation = consultationService.createConsultation(consultationDto);
+            Consultation createdConsultation = consultationService.createConsultation(consultationDto, principal);
             log.info("✅ Consultation créée avec l'ID: {}", createdConsultation.getId());
-            return ResponseEntity.ok(createdConsultation);
+            return ResponseEntity.of(consultationService.getConsultationById(createdConsultation.getId()));
         } catch (Exception e) {
             log.error("❌ Erreur lors de la création de la consultation", e);
             return ResponseEntity.badRequest().build();
@@ -79,13 +116,13 @@ public class ConsultationController {
     
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('DOCTOR')")
-    public ResponseEntity<Consultation> updateConsultation(@PathVariable Long id, @Valid @RequestBody ConsultationDto consultationDto) {
+    public ResponseEntity<ConsultationDetail> updateConsultation(@PathVariable Long id, @Valid @RequestBody ConsultationDto consultationDto) {
         log.info("Mise à jour de la consultation avec l'ID: {}", id);
         
         try {
-            Consultation updatedConsultation = consultationService.updateConsultation(id, consultationDto);
+            consultationService.updateConsultation(id, consultationDto);
             log.info("✅ Consultation mise à jour");
-            return ResponseEntity.ok(updatedConsultation);
+            return ResponseEntity.of(consultationService.getConsultationById(id));
         } catch (Exception e) {
             log.error("❌ Erreur lors de la mise à jour de la consultation", e);
             return ResponseEntity.badRequest().build();
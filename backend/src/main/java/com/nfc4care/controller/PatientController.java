@@ -1,17 +1,23 @@
 package com.nfc4care.controller;
 
+import com.nfc4care.dto.CursorPage;
+import com.nfc4care.dto.PatientDetail;
 import com.nfc4care.dto.PatientDto;
+import com.nfc4care.dto.PatientSummary;
 import com.nfc4care.entity.Patient;
 import com.nfc4care.service.PatientService;
+import com.nfc4care.service.PatientSummaryService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/patients")
@@ -20,15 +26,23 @@ import java.util.Optional;
 public class PatientController {
     
     private final PatientService patientService;
+    private final PatientSummaryService patientSummaryService;
     
     @GetMapping
     @PreAuthorize("hasRole('DOCTOR')")
-    public ResponseEntity<List<Patient>> getAllPatients() {
-        log.info("Récupération de tous les patients");
+    public ResponseEntity<CursorPage<PatientSummary>> getAllPatients(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PatientService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) Boolean actif,
+            @RequestParam(defaultValue = "ID") PatientService.PatientSort sort) {
+        log.info("Récupération des patients - limit: {}, actif: {}, sort: {}", limit, actif, sort);
         try {
-            List<Patient> patients = patientService.getAllPatients();
-            log.info("✅ {} patients récupérés", patients.size());
-            return ResponseEntity.ok(patients);
+            CursorPage<PatientSummary> page = patientService.getPatients(cursor, limit, actif, sort);
+            log.info("✅ {} patients récupérés", page.getItems().size());
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            log.warn("❌ Paramètres de pagination invalides: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("❌ Erreur lors de la récupération des patients", e);
             return ResponseEntity.internalServerError().build();
@@ -37,10 +51,10 @@ public class PatientController {
     
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('DOCTOR')")
-    public ResponseEntity<Patient> getPatientById(@PathVariable Long id) {
+    public ResponseEntity<PatientDetail> getPatientById(@PathVariable Long id) {
         log.info("Récupération du patient avec l'ID: {}", id);
         try {
-            Optional<Patient> patient = patientService.getPatientById(id);
+            Optional<PatientDetail> patient = patientService.getPatientById(id);
             if (patient.isPresent()) {
                 log.info("✅ Patient trouvé");
                 return ResponseEntity.ok(patient.get());
@@ -54,15 +68,17 @@ public class PatientController {
         }
     }
     
-    @GetMapping("/nfc/{numeroNFC}")
+    @GetMapping(value = "/nfc/{numeroNFC}", produces = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("hasRole('DOCTOR')")
-    public ResponseEntity<Patient> getPatientByNFC(@PathVariable String numeroNFC) {
+    public ResponseEntity<byte[]> getPatientByNFC(@PathVariable String numeroNFC) {
         log.info("Récupération du patient par NFC: {}", numeroNFC);
         try {
-            Optional<Patient> patient = patientService.getPatientByNFC(numeroNFC);
+            Optional<byte[]> patient = patientService.resolveNfcScan(numeroNFC);
             if (patient.isPresent()) {
                 log.info("✅ Patient trouvé par NFC");
-                return ResponseEntity.ok(patient.get());
+                return ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(patient.get());
             } else {
                 log.info("❌ Patient non trouvé par NFC");
                 return ResponseEntity.notFound().build();
@@ -73,12 +89,29 @@ public class PatientController {
         }
     }
     
+    /**
+     * Identité, allergies et traitements en cours, dernières consultations : tout l'écran patient en un appel
+     */
+    @GetMapping(value = "/{id}/summary", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<byte[]> getPatientSummary(@PathVariable Long id) {
+        log.info("Récupération du résumé du patient: {}", id);
+        return summaryResponse(() -> patientSummaryService.getSummary(id));
+    }
+    
+    @GetMapping(value = "/nfc/{numeroNFC}/summary", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<byte[]> getPatientSummaryByNFC(@PathVariable String numeroNFC) {
+        log.info("Récupération du résumé du patient par NFC: {}", numeroNFC);
+        return summaryResponse(() -> patientSummaryService.getSummaryByNfc(numeroNFC));
+    }
+    
     @GetMapping("/search")
     @PreAuthorize("hasRole('DOCTOR')")
-    public ResponseEntity<List<Patient>> searchPatients(@RequestParam String q) {
+    public ResponseEntity<List<PatientSummary>> searchPatients(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
         log.info("Recherche de patients avec le terme: {}", q);
         try {
-            List<Patient> patients = patientService.searchPatients(q);
+            List<PatientSummary> patients = patientService.searchPatients(q, Math.max(1, Math.min(limit, 100)));
             log.info("✅ {} patients trouvés pour la recherche: {}", patients.size(), q);
             return ResponseEntity.ok(patients);
         } catch (Exception e) {
@@ -89,12 +122,12 @@ public class PatientController {
     
     @PostMapping
     @PreAuthorize("hasRole('DOCTOR')")
-    public ResponseEntity<Patient> createPatient(@Valid @RequestBody PatientDto patientDto) {
+    public ResponseEntity<PatientDetail> createPatient(@Valid @RequestBody PatientDto patientDto) {
         log.info("Création d'un nouveau patient: {}", patientDto.getNom());
         try {
             Patient createdPatient = patientService.createPatient(patientDto);
             log.info("✅ Patient créé avec l'ID: {}", createdPatient.getId());
-            return ResponseEntity.ok(createdPatient);
+            return ResponseEntity.ok(PatientDetail.of(createdPatient));
         } catch (Exception e) {
             log.error("❌ Erreur lors de la création du patient", e);
             return ResponseEntity.badRequest().build();
@@ -103,12 +136,12 @@ public class PatientController {
     
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('DOCTOR')")
-    public ResponseEntity<Patient> updatePatient(@PathVariable Long id, @Valid @RequestBody PatientDto patientDto) {
+    public ResponseEntity<PatientDetail> updatePatient(@PathVariable Long id, @Valid @RequestBody PatientDto patientDto) {
         log.info("Mise à jour du patient avec l'ID: {}", id);
         try {
             Patient updatedPatient = patientService.updatePatient(id, patientDto);
             log.info("✅ Patient mis à jour");
-            return ResponseEntity.ok(updatedPatient);
+            return ResponseEntity.ok(PatientDetail.of(updatedPatient));
         } catch (Exception e) {
             log.error("❌ Erreur lors de la mise à jour du patient", e);
             return ResponseEntity.badRequest().build();
@@ -128,4 +161,22 @@ public class PatientController {
             return ResponseEntity.badRequest().build();
         }
     }
-} 
\ No newline at end of file
+    
+    private ResponseEntity<byte[]> summaryResponse(Supplier<Optional<byte[]>> summary) {
+        try {
+            Optional<byte[]> response = summary.get();
+            if (response.isPresent()) {
+                log.info("✅ Résumé patient trouvé");
+                return ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(response.get());
+            } else {
+                log.info("❌ Patient non trouvé");
+                return ResponseEntity.notFound().build();
+            }
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de la récupération du résumé patient", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
@@ -11,6 +11,7 @@ import lombok.Builder;
 @Builder
 public class AuthResponse {
     private String token;
+    private String refreshToken;
     private String type = "Bearer";
     private Long professionnelId;
     private String nom;
@@ -0,0 +1,44 @@
+package com.nfc4care.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Vue détail d'une consultation, construite par une seule requête JPQL avec les jointures
+ * vers le dossier, le patient et le professionnel
+ */
+public record ConsultationDetail(
+        Long id,
+        Long dossierMedicalId,
+        PatientRef patient,
+        ProfessionnelRef professionnel,
+        LocalDateTime dateConsultation,
+        String motifConsultation,
+        String examenClinique,
+        String diagnostic,
+        String traitementPrescrit,
+        String ordonnance,
+        String observations,
+        LocalDateTime prochainRdv,
+        String hashContenu,
+        String blockchainTxnHash,
+        LocalDateTime dateCreation,
+        LocalDateTime dateModification
+) {
+    
+    /**
+     * Constructeur à plat utilisé par les expressions {@code SELECT new}
+     */
+    public ConsultationDetail(Long id, Long dossierMedicalId,
+                              Long patientId, String patientNom, String patientPrenom, String numeroDossier,
+                              Long professionnelId, String professionnelNom, String professionnelPrenom, String specialite,
+                              LocalDateTime dateConsultation, String motifConsultation, String examenClinique,
+                              String diagnostic, String traitementPrescrit, String ordonnance, String observations,
+                              LocalDateTime prochainRdv, String hashContenu, String blockchainTxnHash,
+                              LocalDateTime dateCreation, LocalDateTime dateModification) {
+        this(id, dossierMedicalId,
+                new PatientRef(patientId, patientNom, patientPrenom, numeroDossier),
+                new ProfessionnelRef(professionnelId, professionnelNom, professionnelPrenom, specialite),
+                dateConsultation, motifConsultation, examenClinique, diagnostic, traitementPrescrit,
+                ordonnance, observations, prochainRdv, hashContenu, blockchainTxnHash, dateCreation, dateModification);
+    }
+}
@@ -0,0 +1,36 @@
+package com.nfc4care.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Vue liste d'une consultation. Construite directement par une requête JPQL
+ * (voir {@code ConsultationRepository}) : seules les colonnes affichées dans les listes sont lues,
+ * sans examen clinique, ordonnance ni observations.
+ */
+public record ConsultationSummary(
+        Long id,
+        Long dossierMedicalId,
+        PatientRef patient,
+        ProfessionnelRef professionnel,
+        LocalDateTime dateConsultation,
+        String motifConsultation,
+        String diagnostic,
+        String traitementPrescrit,
+        LocalDateTime prochainRdv,
+        String blockchainTxnHash
+) {
+    
+    /**
+     * Constructeur à plat utilisé par les expressions {@code SELECT new}
+     */
+    public ConsultationSummary(Long id, Long dossierMedicalId,
+                               Long patientId, String patientNom, String patientPrenom, String numeroDossier,
+                               Long professionnelId, String professionnelNom, String professionnelPrenom, String specialite,
+                               LocalDateTime dateConsultation, String motifConsultation, String diagnostic,
+                               String traitementPrescrit, LocalDateTime prochainRdv, String blockchainTxnHash) {
+        this(id, dossierMedicalId,
+                new PatientRef(patientId, patientNom, patientPrenom, numeroDossier),
+                new ProfessionnelRef(professionnelId, professionnelNom, professionnelPrenom, specialite),
+                dateConsultation, motifConsultation, diagnostic, traitementPrescrit, prochainRdv, blockchainTxnHash);
+    }
+}
@@ -0,0 +1,20 @@
+package com.nfc4care.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page d'une liste paginée par curseur (keyset).
+ * {@code nextCursor} est opaque et vaut {@code null} sur la dernière page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+    private int limit;
+}
@@ -0,0 +1,15 @@
+package com.nfc4care.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Éléments du dossier médical affichés dès le scan d'une carte. Construite directement par une requête JPQL
+ * (voir {@code DossierMedicalRepository}) : les antécédents et observations ne sont pas lus.
+ */
+public record DossierHighlights(
+        Long id,
+        String allergies,
+        String traitementsEnCours,
+        LocalDateTime dateModification
+) {
+}
@@ -0,0 +1,24 @@
+package com.nfc4care.dto;
+
+import com.nfc4care.service.AnchoredRecordType;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntegrityBatchRequest {
+    
+    @NotNull(message = "Le type d'enregistrement est obligatoire")
+    private AnchoredRecordType type;
+    
+    @NotEmpty(message = "Au moins un identifiant est obligatoire")
+    @Size(max = 1000, message = "1000 identifiants maximum par vérification")
+    private List<Long> ids;
+}
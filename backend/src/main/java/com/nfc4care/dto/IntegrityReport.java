@@ -0,0 +1,23 @@
+package com.nfc4care.dto;
+
+/**
+ * Résultat de la vérification d'intégrité d'un enregistrement :
+ * empreinte recalculée, puis inclusion dans la racine de Merkle ancrée
+ */
+public record IntegrityReport(
+        String type,
+        Long id,
+        boolean found,
+        boolean contentMatches,
+        boolean anchored,
+        String blockchainTxnHash
+) {
+    
+    public static IntegrityReport missing(String type, Long id) {
+        return new IntegrityReport(type, id, false, false, false, null);
+    }
+    
+    public boolean valid() {
+        return found && contentMatches && anchored;
+    }
+}
@@ -0,0 +1,20 @@
+package com.nfc4care.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Avancement d'un contrôle complet des empreintes ; le débit porte sur l'exécution en cours
+ */
+public record IntegritySweepStatus(
+        Long id,
+        String status,
+        String recordType,
+        long lastId,
+        long checked,
+        long mismatches,
+        double recordsPerSecond,
+        LocalDateTime startedAt,
+        LocalDateTime updatedAt,
+        LocalDateTime finishedAt
+) {
+}
@@ -0,0 +1,48 @@
+package com.nfc4care.dto;
+
+import com.nfc4care.entity.Patient;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Vue détail d'un patient (fiche et scan NFC)
+ */
+public record PatientDetail(
+        Long id,
+        String numeroDossier,
+        String nom,
+        String prenom,
+        LocalDate dateNaissance,
+        String sexe,
+        String adresse,
+        String telephone,
+        String email,
+        String numeroSecuriteSociale,
+        String groupeSanguin,
+        String numeroNFC,
+        LocalDateTime dateCreation,
+        LocalDateTime derniereConsultation,
+        boolean actif
+) {
+    
+    public static PatientDetail of(Patient patient) {
+        return new PatientDetail(
+                patient.getId(),
+                patient.getNumeroDossier(),
+                patient.getNom(),
+                patient.getPrenom(),
+                patient.getDateNaissance(),
+                patient.getSexe(),
+                patient.getAdresse(),
+                patient.getTelephone(),
+                patient.getEmail(),
+                patient.getNumeroSecuriteSociale(),
+                patient.getGroupeSanguin(),
+                patient.getNumeroNFC(),
+                patient.getDateCreation(),
+                patient.getDerniereConsultation(),
+                patient.isActif()
+        );
+    }
+}
@@ -0,0 +1,7 @@
+package com.nfc4care.dto;
+
+/**
+ * Référence courte vers un patient, imbriquée dans les vues de consultation
+ */
+public record PatientRef(Long id, String nom, String prenom, String numeroDossier) {
+}
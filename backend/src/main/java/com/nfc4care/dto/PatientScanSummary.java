@@ -0,0 +1,14 @@
+package com.nfc4care.dto;
+
+import java.util.List;
+
+/**
+ * Écran patient après un scan : identité, points clés du dossier (absent si le patient n'a pas de dossier)
+ * et dernières consultations, de la plus récente à la plus ancienne
+ */
+public record PatientScanSummary(
+        PatientDetail patient,
+        DossierHighlights dossierMedical,
+        List<ConsultationSummary> dernieresConsultations
+) {
+}
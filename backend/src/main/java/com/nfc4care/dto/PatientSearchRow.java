@@ -0,0 +1,14 @@
+package com.nfc4care.dto;
+
+/**
+ * Colonnes d'un patient utilisées par l'index de recherche en mémoire
+ */
+public record PatientSearchRow(
+        Long id,
+        String nom,
+        String prenom,
+        String numeroDossier,
+        String telephone,
+        String email
+) {
+}
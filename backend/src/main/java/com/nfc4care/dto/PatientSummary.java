@@ -0,0 +1,44 @@
+package com.nfc4care.dto;
+
+import com.nfc4care.entity.Patient;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Vue liste / recherche d'un patient : identité, contact et groupe sanguin, sans adresse ni numéro de sécurité sociale
+ */
+public record PatientSummary(
+        Long id,
+        String numeroDossier,
+        String nom,
+        String prenom,
+        LocalDate dateNaissance,
+        String sexe,
+        String telephone,
+        String email,
+        String groupeSanguin,
+        String numeroNFC,
+        LocalDateTime dateCreation,
+        LocalDateTime derniereConsultation,
+        boolean actif
+) {
+    
+    public static PatientSummary of(Patient patient) {
+        return new PatientSummary(
+                patient.getId(),
+                patient.getNumeroDossier(),
+                patient.getNom(),
+                patient.getPrenom(),
+                patient.getDateNaissance(),
+                patient.getSexe(),
+                patient.getTelephone(),
+                patient.getEmail(),
+                patient.getGroupeSanguin(),
+                patient.getNumeroNFC(),
+                patient.getDateCreation(),
+                patient.getDerniereConsultation(),
+                patient.isActif()
+        );
+    }
+}
@@ -0,0 +1,7 @@
+package com.nfc4care.dto;
+
+/**
+ * Référence courte vers un professionnel, imbriquée dans les vues de consultation
+ */
+public record ProfessionnelRef(Long id, String nom, String prenom, String specialite) {
+}
@@ -0,0 +1,58 @@
+package com.nfc4care.entity;
+
+import com.nfc4care.service.AnchoredRecordType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Empreinte à ancrer, insérée dans la même transaction que l'enregistrement modifié
+ * et supprimée une fois l'ancrage écrit (voir {@link com.nfc4care.service.AnchoringService})
+ */
+@Entity
+@Table(name = "anchoring_outbox", indexes = {
+        @Index(name = "idx_anchoring_outbox_next_attempt", columnList = "next_attempt_at, id"),
+        @Index(name = "idx_anchoring_outbox_record", columnList = "record_type, record_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnchoringOutbox {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "record_type", nullable = false, length = 32)
+    private AnchoredRecordType recordType;
+    
+    @Column(name = "record_id", nullable = false)
+    private Long recordId;
+    
+    @Column(name = "hash_contenu", nullable = false, length = 64)
+    private String hashContenu;
+    
+    @Column(nullable = false)
+    private int attempts;
+    
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+    
+    @Column(name = "date_creation", nullable = false)
+    private LocalDateTime dateCreation;
+    
+    @PrePersist
+    protected void onCreate() {
+        dateCreation = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = dateCreation;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.nfc4care.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Métadonnées d'une transaction d'ancrage confirmée sur la blockchain.
+ * Une transaction confirmée ne change plus : elle est conservée sans expiration.
+ */
+@Entity
+@Table(name = "confirmed_transactions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfirmedTransaction {
+    
+    @Id
+    @Column(name = "tx_hash", length = 128)
+    private String txHash;
+    
+    @Column(name = "merkle_root", nullable = false, length = 64)
+    private String merkleRoot;
+    
+    @Column(name = "confirmed_at", nullable = false)
+    private LocalDateTime confirmedAt;
+}
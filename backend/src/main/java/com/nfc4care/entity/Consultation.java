@@ -9,11 +9,24 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "consultations")
+@NamedEntityGraph(
+        name = Consultation.LISTING_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode(value = "dossierMedical", subgraph = "dossierMedical"),
+                @NamedAttributeNode("professionnel")
+        },
+        subgraphs = @NamedSubgraph(name = "dossierMedical", attributeNodes = @NamedAttributeNode("patient"))
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Consultation {
     
+    /**
+     * Graphe des listes de consultations : dossier, patient et professionnel chargés par jointure
+     */
+    public static final String LISTING_GRAPH = "Consultation.listing";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -56,6 +69,10 @@ public class Consultation {
     @Column(name = "blockchain_txn_hash")
     private String blockchainTxnHash;
     
+    // Preuve d'inclusion de hashContenu dans la racine de Merkle ancrée par blockchainTxnHash
+    @Column(name = "merkle_proof", columnDefinition = "TEXT")
+    private String merkleProof;
+    
     @Column(name = "date_creation", nullable = false)
     private LocalDateTime dateCreation;
     
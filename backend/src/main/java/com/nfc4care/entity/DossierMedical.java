@@ -48,6 +48,10 @@ public class DossierMedical {
     @Column(name = "blockchain_txn_hash")
     private String blockchainTxnHash;
     
+    // Preuve d'inclusion de hashContenu dans la racine de Merkle ancrée par blockchainTxnHash
+    @Column(name = "merkle_proof", columnDefinition = "TEXT")
+    private String merkleProof;
+    
     @Column(name = "date_creation", nullable = false)
     private LocalDateTime dateCreation;
     
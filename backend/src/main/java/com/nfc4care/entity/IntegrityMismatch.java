@@ -0,0 +1,46 @@
+package com.nfc4care.entity;
+
+import com.nfc4care.service.AnchoredRecordType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Enregistrement dont l'empreinte recalculée diffère de hashContenu, relevé par un contrôle complet
+ * ou, sans contrôle associé (sweepId null), par la migration des empreintes non ancrées
+ */
+@Entity
+@Table(name = "integrity_mismatches", indexes = {
+        @Index(name = "idx_integrity_mismatches_sweep", columnList = "sweep_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntegrityMismatch {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "sweep_id")
+    private Long sweepId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "record_type", nullable = false, length = 32)
+    private AnchoredRecordType recordType;
+    
+    @Column(name = "record_id", nullable = false)
+    private Long recordId;
+    
+    @Column(name = "stored_hash", length = 64)
+    private String storedHash;
+    
+    @Column(name = "computed_hash", nullable = false, length = 64)
+    private String computedHash;
+    
+    @Column(name = "detected_at", nullable = false)
+    private LocalDateTime detectedAt;
+}
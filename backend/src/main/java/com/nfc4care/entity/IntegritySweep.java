@@ -0,0 +1,50 @@
+package com.nfc4care.entity;
+
+import com.nfc4care.service.AnchoredRecordType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Avancement d'un contrôle complet des empreintes (voir {@link com.nfc4care.service.IntegritySweepService}) :
+ * table en cours et dernier id contrôlé, pour reprendre le parcours après un arrêt
+ */
+@Entity
+@Table(name = "integrity_sweeps")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntegritySweep {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 16)
+    private String status;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "record_type", nullable = false, length = 32)
+    private AnchoredRecordType recordType;
+    
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+    
+    @Column(nullable = false)
+    private long checked;
+    
+    @Column(nullable = false)
+    private long mismatches;
+    
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
@@ -1,5 +1,6 @@
 package com.nfc4care.entity;
 
+import com.nfc4care.service.ProfessionnelCacheEvictionListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -15,6 +16,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "professionnels")
+@EntityListeners(ProfessionnelCacheEvictionListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,7 +20,7 @@ public class Token {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false, unique = true, length = 500)
     private String tokenValue;
     
     @Column(nullable = false)
@@ -38,6 +38,11 @@ public class Token {
     @Column(nullable = false)
     private boolean expired = false;
     
+    // Révoqué par rotation (refresh token remplacé) : seule sa réutilisation signale un vol,
+    // pas celle d'un token révoqué par une connexion sur un autre appareil ou une déconnexion
+    @Column(nullable = false, columnDefinition = "BOOLEAN DEFAULT FALSE")
+    private boolean rotated = false;
+    
     @Column
     private String userAgent;
     
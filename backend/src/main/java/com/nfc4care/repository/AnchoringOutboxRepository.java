@@ -0,0 +1,20 @@
+package com.nfc4care.repository;
+
+import com.nfc4care.entity.AnchoringOutbox;
+import com.nfc4care.service.AnchoredRecordType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AnchoringOutboxRepository extends JpaRepository<AnchoringOutbox, Long> {
+    
+    /**
+     * Retire les empreintes encore en attente d'un enregistrement (remplacées par une nouvelle)
+     */
+    @Modifying
+    @Query("DELETE FROM AnchoringOutbox o WHERE o.recordType = :recordType AND o.recordId = :recordId")
+    int deletePending(@Param("recordType") AnchoredRecordType recordType, @Param("recordId") Long recordId);
+}
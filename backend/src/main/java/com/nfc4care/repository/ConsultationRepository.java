@@ -1,6 +1,10 @@
 package com.nfc4care.repository;
 
+import com.nfc4care.dto.ConsultationDetail;
+import com.nfc4care.dto.ConsultationSummary;
 import com.nfc4care.entity.Consultation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,18 +17,61 @@ import java.util.Optional;
 @Repository
 public interface ConsultationRepository extends JpaRepository<Consultation, Long> {
     
+    String SUMMARY_SELECT = "SELECT new com.nfc4care.dto.ConsultationSummary(c.id, d.id, "
+            + "p.id, p.nom, p.prenom, p.numeroDossier, pr.id, pr.nom, pr.prenom, pr.specialite, "
+            + "c.dateConsultation, c.motifConsultation, c.diagnostic, c.traitementPrescrit, c.prochainRdv, c.blockchainTxnHash) "
+            + "FROM Consultation c JOIN c.dossierMedical d JOIN d.patient p JOIN c.professionnel pr ";
+    
+    String DETAIL_SELECT = "SELECT new com.nfc4care.dto.ConsultationDetail(c.id, d.id, "
+            + "p.id, p.nom, p.prenom, p.numeroDossier, pr.id, pr.nom, pr.prenom, pr.specialite, "
+            + "c.dateConsultation, c.motifConsultation, c.examenClinique, c.diagnostic, c.traitementPrescrit, "
+            + "c.ordonnance, c.observations, c.prochainRdv, c.hashContenu, c.blockchainTxnHash, "
+            + "c.dateCreation, c.dateModification) "
+            + "FROM Consultation c JOIN c.dossierMedical d JOIN d.patient p JOIN c.professionnel pr ";
+    
+    @EntityGraph(Consultation.LISTING_GRAPH)
     List<Consultation> findByDossierMedicalIdOrderByDateConsultationDesc(Long dossierMedicalId);
     
-    @Query("SELECT c FROM Consultation c WHERE c.dossierMedical.patient.id = :patientId ORDER BY c.dateConsultation DESC")
-    List<Consultation> findByPatientIdOrderByDateConsultationDesc(@Param("patientId") Long patientId);
+    @Query(SUMMARY_SELECT + "ORDER BY c.dateConsultation DESC, c.id DESC")
+    List<ConsultationSummary> findAllSummaries();
+    
+    @Query(SUMMARY_SELECT + "WHERE p.id = :patientId ORDER BY c.dateConsultation DESC, c.id DESC")
+    List<ConsultationSummary> findSummariesByPatientId(@Param("patientId") Long patientId);
+    
+    /**
+     * Première page de la chronologie d'un dossier (index consultations(dossier_medical_id, date_consultation, id))
+     */
+    @Query(SUMMARY_SELECT + "WHERE c.dossierMedical.id = :dossierMedicalId "
+            + "ORDER BY c.dateConsultation DESC, c.id DESC")
+    List<ConsultationSummary> findTimeline(@Param("dossierMedicalId") Long dossierMedicalId, Limit limit);
+    
+    /**
+     * Page suivante de la chronologie : consultations strictement antérieures au curseur (date, id)
+     */
+    @Query(SUMMARY_SELECT + "WHERE c.dossierMedical.id = :dossierMedicalId "
+            + "AND (c.dateConsultation < :dateConsultation OR (c.dateConsultation = :dateConsultation AND c.id < :id)) "
+            + "ORDER BY c.dateConsultation DESC, c.id DESC")
+    List<ConsultationSummary> findTimelineBefore(@Param("dossierMedicalId") Long dossierMedicalId,
+                                                 @Param("dateConsultation") LocalDateTime dateConsultation,
+                                                 @Param("id") Long id,
+                                                 Limit limit);
+    
+    @Query("SELECT c.dossierMedical.patient.id FROM Consultation c WHERE c.id = :id")
+    Optional<Long> findPatientIdById(@Param("id") Long id);
+    
+    @Query(DETAIL_SELECT + "WHERE c.id = :id")
+    Optional<ConsultationDetail> findDetailById(@Param("id") Long id);
     
+    @EntityGraph(Consultation.LISTING_GRAPH)
     @Query("SELECT c FROM Consultation c WHERE c.professionnel.id = :professionnelId AND c.dateConsultation >= :startDate ORDER BY c.dateConsultation DESC")
     List<Consultation> findByProfessionnelIdAndDateConsultationAfter(@Param("professionnelId") Long professionnelId, @Param("startDate") LocalDateTime startDate);
     
+    @EntityGraph(Consultation.LISTING_GRAPH)
     Optional<Consultation> findByBlockchainTxnHash(String blockchainTxnHash);
     
     // Dashboard methods
     long countByDateConsultationBetween(LocalDateTime startDate, LocalDateTime endDate);
     
+    @EntityGraph(Consultation.LISTING_GRAPH)
     Consultation findTopByDossierMedicalPatientOrderByDateConsultationDesc(com.nfc4care.entity.Patient patient);
 } 
\ No newline at end of file
@@ -1,7 +1,10 @@
 package com.nfc4care.repository;
 
+import com.nfc4care.dto.DossierHighlights;
 import com.nfc4care.entity.DossierMedical;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -11,5 +14,12 @@ public interface DossierMedicalRepository extends JpaRepository<DossierMedical,
     
     Optional<DossierMedical> findByPatientId(Long patientId);
     
+    @Query("SELECT d.id FROM DossierMedical d WHERE d.patient.id = :patientId")
+    Optional<Long> findIdByPatientId(@Param("patientId") Long patientId);
+    
+    @Query("SELECT new com.nfc4care.dto.DossierHighlights(d.id, d.allergies, d.traitementsEnCours, d.dateModification) "
+            + "FROM DossierMedical d WHERE d.patient.id = :patientId")
+    Optional<DossierHighlights> findHighlightsByPatientId(@Param("patientId") Long patientId);
+    
     Optional<DossierMedical> findByBlockchainTxnHash(String blockchainTxnHash);
 } 
\ No newline at end of file
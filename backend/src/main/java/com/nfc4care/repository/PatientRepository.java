@@ -1,16 +1,23 @@
 package com.nfc4care.repository;
 
+import com.nfc4care.dto.PatientSearchRow;
 import com.nfc4care.entity.Patient;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface PatientRepository extends JpaRepository<Patient, Long> {
+public interface PatientRepository extends JpaRepository<Patient, Long>, JpaSpecificationExecutor<Patient> {
     
     Optional<Patient> findByNumeroDossier(String numeroDossier);
     
@@ -26,6 +33,20 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
            "LOWER(p.email) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
     List<Patient> searchPatients(@Param("searchTerm") String searchTerm);
     
+    /**
+     * Parcours en flux des patients actifs pour construire l'index de recherche (à consommer dans une transaction)
+     */
+    @Query("SELECT new com.nfc4care.dto.PatientSearchRow(p.id, p.nom, p.prenom, p.numeroDossier, p.telephone, p.email) " +
+           "FROM Patient p WHERE p.actif = true")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<PatientSearchRow> streamActiveForSearch();
+    
+    /**
+     * Couples (numéro NFC, id) des patients actifs, pour le préchargement du cache de scan
+     */
+    @Query("SELECT p.numeroNFC, p.id FROM Patient p WHERE p.actif = true AND p.numeroNFC IS NOT NULL")
+    List<Object[]> findActiveNfcMappings();
+    
     boolean existsByNumeroDossier(String numeroDossier);
     
     boolean existsByNumeroSecuriteSociale(String numeroSecuriteSociale);
@@ -27,17 +27,61 @@ public interface TokenRepository extends JpaRepository<Token, Long> {
     @Query("UPDATE Token t SET t.revoked = true WHERE t.userEmail = :userEmail")
     void revokeAllUserTokens(@Param("userEmail") String userEmail);
     
+    /**
+     * Verrou transactionnel propre à l'utilisateur, libéré au commit ou au rollback :
+     * sérialise les connexions concurrentes d'un même compte
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext('tokens:' || :userEmail))", nativeQuery = true)
+    Integer lockUserTokens(@Param("userEmail") String userEmail);
+    
+    /**
+     * Révoque les tokens actifs d'un utilisateur (même prédicat que l'index uq_tokens_one_active_per_user)
+     */
+    @Modifying
+    @Query("UPDATE Token t SET t.revoked = true WHERE t.userEmail = :userEmail AND t.revoked = false AND t.expired = false")
+    int revokeActiveUserTokens(@Param("userEmail") String userEmail);
+    
+    /**
+     * Révoque un refresh token actif au moment de sa rotation, en le marquant comme remplacé
+     */
     @Modifying
     @Transactional
-    @Query("UPDATE Token t SET t.expired = true WHERE t.expiresAt < :now")
-    int expireTokens(@Param("now") LocalDateTime now);
+    @Query("UPDATE Token t SET t.revoked = true, t.rotated = true WHERE t.tokenValue = :tokenValue AND t.revoked = false AND t.expired = false AND t.expiresAt > :now")
+    int revokeIfActive(@Param("tokenValue") String tokenValue, @Param("now") LocalDateTime now);
     
-    @Query("SELECT COUNT(t) FROM Token t WHERE t.userEmail = :userEmail AND t.revoked = false AND t.expired = false")
-    long countValidTokensByUser(@Param("userEmail") String userEmail);
+    /**
+     * Marque comme expiré un lot d'au plus {@code batchSize} tokens dont la date d'expiration est passée
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE tokens SET expired = true WHERE id IN (" +
+                   "SELECT id FROM tokens WHERE expired = false AND expires_at < :now LIMIT :batchSize)",
+           nativeQuery = true)
+    int expireTokensBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
     
+    /**
+     * Supprime un lot d'au plus {@code batchSize} tokens expirés avant la date donnée
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM tokens WHERE id IN (" +
+                   "SELECT id FROM tokens WHERE expires_at < :cutoff LIMIT :batchSize)",
+           nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+    
+    /**
+     * Révoque un lot de tokens actifs en ne gardant que le plus récent par utilisateur
+     */
+    @Modifying
     @Transactional
-    void deleteByExpiresAtBefore(LocalDateTime date);
+    @Query(value = "UPDATE tokens SET revoked = true WHERE id IN (" +
+                   "SELECT id FROM (" +
+                   "SELECT id, ROW_NUMBER() OVER (PARTITION BY user_email ORDER BY created_at DESC, id DESC) AS rang " +
+                   "FROM tokens WHERE revoked = false AND expired = false AND expires_at > :now" +
+                   ") classes WHERE rang > 1 LIMIT :batchSize)",
+           nativeQuery = true)
+    int revokeAllButNewestActiveBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
     
-    @Query("SELECT DISTINCT t.userEmail FROM Token t WHERE t.revoked = false AND t.expired = false AND t.expiresAt > :now")
-    List<String> findUsersWithActiveTokens(@Param("now") LocalDateTime now);
+    @Query("SELECT COUNT(t) FROM Token t WHERE t.userEmail = :userEmail AND t.revoked = false AND t.expired = false")
+    long countValidTokensByUser(@Param("userEmail") String userEmail);
 } 
\ No newline at end of file
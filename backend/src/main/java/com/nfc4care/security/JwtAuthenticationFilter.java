@@ -1,7 +1,8 @@
 package com.nfc4care.security;
 
+import com.nfc4care.service.CustomUserDetailsService;
 import com.nfc4care.service.JwtService;
-import com.nfc4care.service.TokenService;
+import com.nfc4care.service.VerifiedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,8 +12,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -25,8 +24,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
-    private final TokenService tokenService;
+    private final CustomUserDetailsService userDetailsService;
     
     @Override
     protected void doFilterInternal(
@@ -51,8 +49,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         log.debug("🔑 Token JWT reçu: {}...", jwt.substring(0, Math.min(20, jwt.length())));
         
         try {
-            // Vérifier d'abord la validité JWT
-            userEmail = jwtService.extractUsername(jwt);
+            // Vérifier d'abord la signature JWT (une seule fois pour toute la requête)
+            VerifiedToken verifiedToken = jwtService.verify(jwt);
+            userEmail = verifiedToken.subject();
             
             if (userEmail == null) {
                 log.warn("❌ Impossible d'extraire l'email du token JWT");
@@ -63,9 +62,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             log.debug("📧 Email extrait du token: {}", userEmail);
             
             if (SecurityContextHolder.getContext().getAuthentication() == null) {
-                // Vérifier si le token existe en base de données et est actif
-                log.debug("🔍 Vérification du token en base de données...");
-                boolean isTokenValidInDB = tokenService.isTokenValid(jwt);
+                // Vérifier si le token est actif (en base de données, ou par révocation en mode stateless)
+                log.debug("🔍 Vérification de l'état du token...");
+                boolean isTokenValidInDB = jwtService.isTokenActive(verifiedToken);
                 
                 if (!isTokenValidInDB) {
                     log.warn("❌ Token non trouvé en base de données ou révoqué pour l'utilisateur: {}", userEmail);
@@ -79,7 +78,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 
                 // Vérifier la validité JWT
                 if (jwtService.isTokenValid(jwt)) {
-                    UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                    ProfessionnelPrincipal userDetails = this.userDetailsService.loadPrincipal(userEmail);
+                    
+                    if (!userDetails.isEnabled()) {
+                        log.warn("❌ Compte désactivé pour l'utilisateur: {}", userEmail);
+                        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                        response.getWriter().write("{\"success\":false,\"error\":\"Compte désactivé\",\"message\":\"Votre compte a été désactivé.\"}");
+                        response.setContentType("application/json");
+                        return;
+                    }
                     
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
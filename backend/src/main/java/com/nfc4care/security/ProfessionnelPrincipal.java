@@ -0,0 +1,66 @@
+package com.nfc4care.security;
+
+import com.nfc4care.entity.Professionnel;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Instantané immuable d'un professionnel authentifié.
+ * Ne contient pas le mot de passe : il n'est utilisé qu'après la validation du JWT.
+ */
+public record ProfessionnelPrincipal(
+        Long id,
+        String email,
+        Professionnel.Role role,
+        List<GrantedAuthority> authorities,
+        boolean actif
+) implements UserDetails {
+
+    public static ProfessionnelPrincipal of(Professionnel professionnel) {
+        return new ProfessionnelPrincipal(
+                professionnel.getId(),
+                professionnel.getEmail(),
+                professionnel.getRole(),
+                List.copyOf(professionnel.getAuthorities()),
+                professionnel.isActif()
+        );
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return actif;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return actif;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return actif;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return actif;
+    }
+}
@@ -0,0 +1,54 @@
+package com.nfc4care.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Liste de révocation en mémoire des access tokens (mode stateless), indexée par {@code jti}.
+ * Une entrée n'est conservée que jusqu'à l'expiration de l'access token révoqué,
+ * la taille de la liste reste donc bornée par le nombre de déconnexions sur une durée de vie de token.
+ */
+@Component
+@Slf4j
+public class AccessTokenRevocationList {
+
+    private final Cache<String, Instant> revoked = Caffeine.newBuilder()
+            .expireAfter(new Expiry<String, Instant>() {
+                @Override
+                public long expireAfterCreate(String jti, Instant expiresAt, long currentTime) {
+                    return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+                }
+
+                @Override
+                public long expireAfterUpdate(String jti, Instant expiresAt, long currentTime, long currentDuration) {
+                    return expireAfterCreate(jti, expiresAt, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String jti, Instant expiresAt, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
+    /**
+     * Révoque un access token jusqu'à son expiration
+     */
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || expiresAt.isBefore(Instant.now())) {
+            return;
+        }
+        revoked.put(jti, expiresAt);
+        log.debug("Access token révoqué: {}", jti);
+    }
+
+    public boolean isRevoked(String jti) {
+        return jti != null && revoked.getIfPresent(jti) != null;
+    }
+}
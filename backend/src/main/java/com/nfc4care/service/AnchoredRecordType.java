@@ -0,0 +1,19 @@
+package com.nfc4care.service;
+
+/**
+ * Types d'enregistrements dont l'empreinte est ancrée, avec leur table
+ */
+public enum AnchoredRecordType {
+    CONSULTATION("consultations"),
+    DOSSIER_MEDICAL("dossiers_medicaux");
+    
+    private final String table;
+    
+    AnchoredRecordType(String table) {
+        this.table = table;
+    }
+    
+    public String table() {
+        return table;
+    }
+}
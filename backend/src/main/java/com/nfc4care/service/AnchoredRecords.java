@@ -0,0 +1,97 @@
+package com.nfc4care.service;
+
+import com.nfc4care.entity.Consultation;
+import com.nfc4care.entity.DossierMedical;
+import com.nfc4care.entity.Patient;
+import com.nfc4care.entity.Professionnel;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Lecture JDBC des seuls champs couverts par l'empreinte d'un enregistrement, hors contexte de persistance
+ * (contrôle d'intégrité, recalcul des empreintes non ancrées)
+ */
+final class AnchoredRecords {
+
+    private static final String CONSULTATION_COLUMNS = "id, dossier_medical_id, professionnel_id, date_consultation, " +
+            "motif_consultation, examen_clinique, diagnostic, traitement_prescrit, ordonnance, observations, " +
+            "prochain_rdv, hash_contenu";
+    private static final String DOSSIER_MEDICAL_COLUMNS = "id, patient_id, antecedents_medicaux, antecedents_chirurgicaux, " +
+            "antecedents_familiaux, traitements_en_cours, allergies, observations_generales, professionnel_creation_id, hash_contenu";
+
+    private AnchoredRecords() {
+    }
+
+    /**
+     * {@code SELECT} des colonnes hachées (plus id et hash_contenu), à compléter par une clause WHERE
+     */
+    static String select(AnchoredRecordType type) {
+        return switch (type) {
+            case CONSULTATION -> "SELECT " + CONSULTATION_COLUMNS + " FROM consultations r";
+            case DOSSIER_MEDICAL -> "SELECT " + DOSSIER_MEDICAL_COLUMNS + " FROM dossiers_medicaux r";
+        };
+    }
+
+    /**
+     * Reconstruit un enregistrement non géré avec les seuls champs couverts par l'empreinte
+     */
+    static Object read(AnchoredRecordType type, ResultSet rs) throws SQLException {
+        long id = rs.getLong("id");
+        return switch (type) {
+            case CONSULTATION -> {
+                Consultation consultation = new Consultation();
+                consultation.setId(id);
+                DossierMedical dossierMedical = new DossierMedical();
+                dossierMedical.setId(rs.getObject("dossier_medical_id", Long.class));
+                consultation.setDossierMedical(dossierMedical);
+                consultation.setProfessionnel(professionnel(rs.getObject("professionnel_id", Long.class)));
+                consultation.setDateConsultation(toLocalDateTime(rs.getTimestamp("date_consultation")));
+                consultation.setMotifConsultation(rs.getString("motif_consultation"));
+                consultation.setExamenClinique(rs.getString("examen_clinique"));
+                consultation.setDiagnostic(rs.getString("diagnostic"));
+                consultation.setTraitementPrescrit(rs.getString("traitement_prescrit"));
+                consultation.setOrdonnance(rs.getString("ordonnance"));
+                consultation.setObservations(rs.getString("observations"));
+                consultation.setProchainRdv(toLocalDateTime(rs.getTimestamp("prochain_rdv")));
+                yield consultation;
+            }
+            case DOSSIER_MEDICAL -> {
+                DossierMedical dossierMedical = new DossierMedical();
+                dossierMedical.setId(id);
+                Patient patient = new Patient();
+                patient.setId(rs.getObject("patient_id", Long.class));
+                dossierMedical.setPatient(patient);
+                dossierMedical.setAntecedentsMedicaux(rs.getString("antecedents_medicaux"));
+                dossierMedical.setAntecedentsChirurgicaux(rs.getString("antecedents_chirurgicaux"));
+                dossierMedical.setAntecedentsFamiliaux(rs.getString("antecedents_familiaux"));
+                dossierMedical.setTraitementsEnCours(rs.getString("traitements_en_cours"));
+                dossierMedical.setAllergies(rs.getString("allergies"));
+                dossierMedical.setObservationsGenerales(rs.getString("observations_generales"));
+                dossierMedical.setProfessionnelCreation(professionnel(rs.getObject("professionnel_creation_id", Long.class)));
+                yield dossierMedical;
+            }
+        };
+    }
+
+    static String hash(RecordHasher hasher, Object record) {
+        return record instanceof Consultation consultation
+                ? hasher.hash(consultation)
+                : hasher.hash((DossierMedical) record);
+    }
+
+    private static Professionnel professionnel(Long id) {
+        if (id == null) {
+            return null;
+        }
+        Professionnel professionnel = new Professionnel();
+        professionnel.setId(id);
+        return professionnel;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
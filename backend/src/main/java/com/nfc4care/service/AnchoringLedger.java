@@ -0,0 +1,19 @@
+package com.nfc4care.service;
+
+import java.util.Optional;
+
+/**
+ * Registre externe sur lequel sont ancrées les racines de Merkle
+ */
+public interface AnchoringLedger {
+    
+    /**
+     * Publie une racine de Merkle et retourne le hash de la transaction
+     */
+    String anchor(String merkleRoot, int recordCount);
+    
+    /**
+     * Racine de Merkle enregistrée dans une transaction, si elle existe
+     */
+    Optional<String> anchoredRoot(String transactionHash);
+}
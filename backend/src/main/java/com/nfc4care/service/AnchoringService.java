@@ -0,0 +1,258 @@
+package com.nfc4care.service;
+
+import com.nfc4care.entity.AnchoringOutbox;
+import com.nfc4care.repository.AnchoringOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ancrage groupé des empreintes (hashContenu) des consultations et dossiers médicaux, via une outbox transactionnelle.
+ *
+ * Chaque écriture d'enregistrement insère une ligne dans {@code anchoring_outbox} dans sa propre transaction :
+ * l'appel au registre externe ne se fait jamais dans le thread de la requête HTTP, et aucune empreinte n'est perdue
+ * si le nœud s'arrête. Toutes les {@code window} ms, {@code concurrency} publieurs réservent chacun jusqu'à
+ * {@code batch-size} lignes (bail de {@code lease} ms, {@code FOR UPDATE SKIP LOCKED}), construisent un arbre
+ * de Merkle dont seule la racine est publiée, puis écrivent le hash de transaction et la preuve d'inclusion
+ * de chaque enregistrement. Un lot en échec est retenté avec un délai exponentiel borné.
+ */
+@Component
+@Slf4j
+public class AnchoringService {
+
+    private final AnchoringLedger ledger;
+    private final AnchoringOutboxRepository outboxRepository;
+    private final HashBackfill hashBackfill;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final ScheduledExecutorService publishers;
+    private final int batchSize;
+    private final long leaseMillis;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final Counter anchoredRecords;
+    private final Counter failedBatches;
+    private final Timer batchTimer;
+
+    public AnchoringService(
+            AnchoringLedger ledger,
+            AnchoringOutboxRepository outboxRepository,
+            HashBackfill hashBackfill,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${nfc4care.anchoring.batch-size:4096}") int batchSize,
+            @Value("${nfc4care.anchoring.window:60000}") long windowMillis,
+            @Value("${nfc4care.anchoring.concurrency:2}") int concurrency,
+            @Value("${nfc4care.anchoring.lease:300000}") long leaseMillis,
+            @Value("${nfc4care.anchoring.retry.initial-backoff:5000}") long initialBackoffMillis,
+            @Value("${nfc4care.anchoring.retry.max-backoff:3600000}") long maxBackoffMillis
+    ) {
+        this.ledger = ledger;
+        this.outboxRepository = outboxRepository;
+        this.hashBackfill = hashBackfill;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.leaseMillis = leaseMillis;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.anchoredRecords = meterRegistry.counter("nfc4care.anchoring.records");
+        this.failedBatches = meterRegistry.counter("nfc4care.anchoring.failures");
+        this.batchTimer = meterRegistry.timer("nfc4care.anchoring.batch");
+
+        this.publishers = Executors.newScheduledThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "anchoring-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Publieurs décalés dans la fenêtre pour lisser la charge
+        for (int i = 0; i < concurrency; i++) {
+            long initialDelay = windowMillis + i * windowMillis / concurrency;
+            publishers.scheduleWithFixedDelay(this::drainQuietly, initialDelay, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Ajoute à l'outbox les enregistrements jamais ancrés qui n'y sont pas encore (données antérieures à l'outbox),
+     * après migration, si elle est activée, des empreintes héritées (HashBackfill)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void enqueueUnanchored() {
+        hashBackfill.rehashUnanchored();
+        int total = 0;
+        for (AnchoredRecordType type : AnchoredRecordType.values()) {
+            total += jdbcTemplate.update(
+                    "INSERT INTO anchoring_outbox (record_type, record_id, hash_contenu, attempts, next_attempt_at, date_creation) " +
+                    "SELECT ?, r.id, r.hash_contenu, 0, ?, ? FROM " + type.table() + " r " +
+                    "WHERE r.blockchain_txn_hash IS NULL AND NOT EXISTS " +
+                    "(SELECT 1 FROM anchoring_outbox o WHERE o.record_type = ? AND o.record_id = r.id)",
+                    type.name(), now(), now(), type.name());
+        }
+        if (total > 0) {
+            log.info("{} enregistrements non ancrés ajoutés à l'outbox", total);
+        }
+    }
+
+    /**
+     * Planifie l'ancrage de l'empreinte d'un enregistrement, dans la transaction de son écriture
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(AnchoredRecordType type, Long id, String hashContenu) {
+        // Une empreinte encore en attente pour cet enregistrement est remplacée
+        outboxRepository.deletePending(type, id);
+        AnchoringOutbox entry = new AnchoringOutbox();
+        entry.setRecordType(type);
+        entry.setRecordId(id);
+        entry.setHashContenu(hashContenu);
+        outboxRepository.save(entry);
+    }
+
+    /**
+     * Retire de l'outbox les empreintes en attente d'un enregistrement supprimé
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cancel(AnchoredRecordType type, Long id) {
+        outboxRepository.deletePending(type, id);
+    }
+
+    /**
+     * Ancre les lignes dues de l'outbox jusqu'à ce qu'il n'en reste plus
+     */
+    public void drain() {
+        List<OutboxRow> batch;
+        do {
+            batch = claim();
+            if (!batch.isEmpty()) {
+                publish(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    /**
+     * Réserve un lot de lignes dues en repoussant leur échéance de la durée du bail :
+     * une ligne réservée par un nœud arrêté redevient due à l'expiration du bail
+     */
+    private List<OutboxRow> claim() {
+        List<OutboxRow> rows = jdbcTemplate.query(
+                "UPDATE anchoring_outbox SET next_attempt_at = ?, attempts = attempts + 1 " +
+                "WHERE id IN (SELECT id FROM anchoring_outbox WHERE next_attempt_at <= ? " +
+                "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                "RETURNING id, record_type, record_id, hash_contenu, attempts",
+                (rs, rowNum) -> new OutboxRow(
+                        rs.getLong("id"),
+                        AnchoredRecordType.valueOf(rs.getString("record_type")),
+                        rs.getLong("record_id"),
+                        rs.getString("hash_contenu"),
+                        rs.getInt("attempts")),
+                Timestamp.valueOf(LocalDateTime.now().plus(Duration.ofMillis(leaseMillis))), now(), batchSize);
+        rows.sort((a, b) -> Long.compare(a.id(), b.id()));
+        return rows;
+    }
+
+    private void publish(List<OutboxRow> batch) {
+        long start = System.nanoTime();
+        try {
+            MerkleTree.Result tree = MerkleTree.build(batch.stream().map(OutboxRow::hashContenu).toList());
+            String transactionHash = ledger.anchor(tree.root(), batch.size());
+            complete(batch, tree, transactionHash);
+
+            anchoredRecords.increment(batch.size());
+            log.info("✅ {} empreintes ancrées (racine {}) dans la transaction {}", batch.size(), tree.root(), transactionHash);
+        } catch (RuntimeException e) {
+            failedBatches.increment();
+            retryLater(batch, e);
+        } finally {
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Écrit l'ancrage sur les enregistrements et retire les lignes de l'outbox, dans une seule transaction
+     */
+    private void complete(List<OutboxRow> batch, MerkleTree.Result tree, String transactionHash) {
+        Map<AnchoredRecordType, List<Object[]>> updates = new EnumMap<>(AnchoredRecordType.class);
+        List<Object[]> done = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxRow row = batch.get(i);
+            updates.computeIfAbsent(row.type(), type -> new ArrayList<>())
+                    .add(new Object[]{transactionHash, tree.proofs().get(i), row.recordId(), row.hashContenu()});
+            done.add(new Object[]{row.id()});
+        }
+        transaction.executeWithoutResult(status -> {
+            // La condition sur hash_contenu ignore les enregistrements modifiés depuis (leur nouvelle empreinte est dans l'outbox)
+            updates.forEach((type, rows) -> jdbcTemplate.batchUpdate(
+                    "UPDATE " + type.table() + " SET blockchain_txn_hash = ?, merkle_proof = ? " +
+                    "WHERE id = ? AND hash_contenu = ?",
+                    rows));
+            jdbcTemplate.batchUpdate("DELETE FROM anchoring_outbox WHERE id = ?", done);
+        });
+    }
+
+    private void retryLater(List<OutboxRow> batch, RuntimeException error) {
+        int attempts = batch.stream().mapToInt(OutboxRow::attempts).max().orElse(1);
+        long backoff = backoffMillis(attempts);
+        log.error("Échec de l'ancrage de {} empreintes (tentative {}), nouvel essai dans {} ms: {}",
+                batch.size(), attempts, backoff, error.getMessage());
+
+        Timestamp nextAttempt = Timestamp.valueOf(LocalDateTime.now().plus(Duration.ofMillis(backoff)));
+        String message = String.valueOf(error.getMessage());
+        jdbcTemplate.batchUpdate(
+                "UPDATE anchoring_outbox SET next_attempt_at = ?, last_error = ? WHERE id = ?",
+                batch.stream().map(row -> new Object[]{nextAttempt, message, row.id()}).toList());
+    }
+
+    /**
+     * Délai exponentiel (initial × 2^(tentative-1)) borné, avec ±20 % d'aléa pour désynchroniser les nœuds
+     */
+    private long backoffMillis(int attempts) {
+        long exponential = initialBackoffMillis << Math.min(Math.max(attempts - 1, 0), 30);
+        long capped = Math.min(exponential <= 0 ? maxBackoffMillis : exponential, maxBackoffMillis);
+        double jitter = 0.8 + 0.4 * Math.random();
+        return (long) (capped * jitter);
+    }
+
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (Exception e) {
+            log.error("Erreur lors de l'ancrage des empreintes: {}", e.getMessage(), e);
+        }
+    }
+
+    private static Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+
+    // Les lignes réservées non publiées redeviennent dues à l'expiration de leur bail
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        publishers.shutdown();
+        publishers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private record OutboxRow(Long id, AnchoredRecordType type, Long recordId, String hashContenu, int attempts) {
+    }
+}
@@ -8,6 +8,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -22,26 +23,40 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final LoginAttemptLimiter loginAttemptLimiter;
+    private final WriteBehindQueue writeBehindQueue;
     
-    public AuthResponse authenticate(AuthRequest request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-        );
+    public AuthResponse authenticate(AuthRequest request, String ipAddress) {
+        // Rejet des tentatives au-delà de la limite, avant tout accès base ou hachage
+        loginAttemptLimiter.checkAllowed(request.getEmail(), ipAddress);
+        
+        // Vérification BCrypt sur le pool dédié, hors des threads Tomcat
+        try {
+            passwordHashingExecutor.execute(() -> authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
+            ));
+        } catch (AuthenticationException e) {
+            loginAttemptLimiter.recordFailure(request.getEmail(), ipAddress);
+            throw e;
+        }
+        loginAttemptLimiter.recordSuccess(request.getEmail());
         
         Professionnel professionnel = professionnelRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("Professionnel non trouvé"));
         
-        // Mettre à jour la dernière connexion
+        // Mettre à jour la dernière connexion (écriture différée, hors du temps de réponse)
         professionnel.setDerniereConnexion(LocalDateTime.now());
-        professionnelRepository.save(professionnel);
+        writeBehindQueue.recordLastLogin(professionnel.getId(), professionnel.getDerniereConnexion());
         
         // Générer et sauvegarder le token
-        String token = jwtService.generateAndSaveToken(professionnel, "Web Client", "127.0.0.1");
+        IssuedTokens tokens = jwtService.issueTokens(professionnel, "Web Client", "127.0.0.1");
         
         log.info("Token généré et sauvegardé pour l'utilisateur: {}", professionnel.getEmail());
         
         return AuthResponse.builder()
-                .token(token)
+                .token(tokens.accessToken())
+                .refreshToken(tokens.refreshToken())
                 .professionnelId(professionnel.getId())
                 .nom(professionnel.getNom())
                 .prenom(professionnel.getPrenom())
@@ -114,6 +129,33 @@ public class AuthService {
                 .build();
     }
     
+    public AuthResponse refresh(String refreshToken, String userAgent, String ipAddress) {
+        String email = jwtService.extractUsername(refreshToken);
+        
+        Professionnel professionnel = professionnelRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("Professionnel non trouvé"));
+        
+        if (!professionnel.isActif()) {
+            throw new RuntimeException("Compte désactivé");
+        }
+        
+        IssuedTokens tokens = jwtService.refresh(refreshToken, userAgent, ipAddress);
+        
+        return AuthResponse.builder()
+                .token(tokens.accessToken())
+                .refreshToken(tokens.refreshToken())
+                .professionnelId(professionnel.getId())
+                .nom(professionnel.getNom())
+                .prenom(professionnel.getPrenom())
+                .email(professionnel.getEmail())
+                .role(professionnel.getRole().name())
+                .specialite(professionnel.getSpecialite())
+                .numeroRpps(professionnel.getNumeroRPPS())
+                .dateCreation(professionnel.getDateCreation().toString())
+                .actif(professionnel.isActif())
+                .build();
+    }
+    
     public void logout(String token) {
         log.info("Déconnexion demandée pour le token");
         jwtService.revokeToken(token);
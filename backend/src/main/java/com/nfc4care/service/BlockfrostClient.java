@@ -0,0 +1,189 @@
+package com.nfc4care.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Client HTTP dédié aux appels Blockfrost.
+ *
+ * Chaque appel passe, dans l'ordre : le seau à jetons (quota du plan Blockfrost), le circuit breaker
+ * (échec immédiat tant que la chaîne est en panne), le bulkhead (nombre d'appels en cours borné),
+ * puis un délai maximal par appel. Les connexions viennent d'un pool borné avec délais de connexion
+ * et de réponse. Tout refus ou dépassement est signalé par {@link LedgerUnavailableException}.
+ * Les réponses 4xx ne comptent pas comme des pannes pour le circuit breaker.
+ */
+@Component
+@Slf4j
+public class BlockfrostClient {
+    
+    private final WebClient webClient;
+    private final ConnectionProvider connectionProvider;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final TokenBucket quota;
+    private final MeterRegistry meterRegistry;
+    private final Duration submitDeadline;
+    private final Duration readDeadline;
+    
+    public BlockfrostClient(
+            WebClient.Builder webClientBuilder,
+            MeterRegistry meterRegistry,
+            @Value("${blockfrost.api.base-url}") String baseUrl,
+            @Value("${blockfrost.api.key}") String apiKey,
+            @Value("${blockfrost.client.max-connections:50}") int maxConnections,
+            @Value("${blockfrost.client.pending-acquire-timeout:2000}") long pendingAcquireTimeoutMillis,
+            @Value("${blockfrost.client.connect-timeout:2000}") int connectTimeoutMillis,
+            @Value("${blockfrost.client.response-timeout:5000}") long responseTimeoutMillis,
+            @Value("${blockfrost.client.submit-deadline:10000}") long submitDeadlineMillis,
+            @Value("${blockfrost.client.read-deadline:5000}") long readDeadlineMillis,
+            @Value("${blockfrost.client.max-concurrent-calls:20}") int maxConcurrentCalls,
+            @Value("${blockfrost.client.rate-limit.requests-per-second:10}") double requestsPerSecond,
+            @Value("${blockfrost.client.rate-limit.burst:500}") long burst,
+            @Value("${blockfrost.client.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${blockfrost.client.circuit-breaker.wait-in-open-state:30000}") long waitInOpenStateMillis
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.submitDeadline = Duration.ofMillis(submitDeadlineMillis);
+        this.readDeadline = Duration.ofMillis(readDeadlineMillis);
+        
+        this.connectionProvider = ConnectionProvider.builder("blockfrost")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMillis))
+                .maxIdleTime(Duration.ofSeconds(30))
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMillis));
+        this.webClient = webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .baseUrl(baseUrl)
+                .defaultHeader("project_id", apiKey)
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(2 * 1024 * 1024))
+                .build();
+        
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(20)
+                .minimumNumberOfCalls(10)
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(responseTimeoutMillis))
+                .waitDurationInOpenState(Duration.ofMillis(waitInOpenStateMillis))
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .ignoreException(BlockfrostClient::isClientError)
+                .build());
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        this.circuitBreaker = circuitBreakers.circuitBreaker("blockfrost");
+        this.bulkhead = bulkheads.bulkhead("blockfrost");
+        this.quota = new TokenBucket(burst, requestsPerSecond);
+        
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        meterRegistry.gauge("nfc4care.blockfrost.quota.available", quota, TokenBucket::availableTokens);
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Circuit Blockfrost: {}", event.getStateTransition()));
+    }
+    
+    /**
+     * POST d'un corps JSON, réponse obligatoire
+     */
+    public JsonNode post(String operation, String path, Object body) {
+        return call(operation, submitDeadline, webClient.post()
+                .uri(path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(JsonNode.class))
+                .orElseThrow(() -> new LedgerUnavailableException("Réponse Blockfrost vide"));
+    }
+    
+    /**
+     * GET d'une ressource JSON ; vide si elle n'existe pas (404)
+     */
+    public Optional<JsonNode> get(String operation, String path, Object... uriVariables) {
+        return call(operation, readDeadline, webClient.get()
+                .uri(path, uriVariables)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty()));
+    }
+    
+    private Optional<JsonNode> call(String operation, Duration deadline, Mono<JsonNode> request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            if (!quota.tryAcquire()) {
+                outcome = "throttled";
+                throw new LedgerUnavailableException("Quota Blockfrost atteint");
+            }
+            return request
+                    .timeout(deadline)
+                    .transformDeferred(BulkheadOperator.of(bulkhead))
+                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                    .blockOptional();
+        } catch (CallNotPermittedException e) {
+            outcome = "circuit_open";
+            throw new LedgerUnavailableException("Blockfrost indisponible (circuit ouvert)", e);
+        } catch (BulkheadFullException e) {
+            outcome = "bulkhead_full";
+            throw new LedgerUnavailableException("Trop d'appels Blockfrost en cours", e);
+        } catch (LedgerUnavailableException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                outcome = "timeout";
+                throw new LedgerUnavailableException("Délai Blockfrost dépassé (" + deadline.toMillis() + " ms)", e);
+            }
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("nfc4care.blockfrost.calls")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+    
+    private static boolean isClientError(Throwable error) {
+        return error instanceof WebClientResponseException response
+                && response.getStatusCode().is4xxClientError()
+                && response.getStatusCode().value() != HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        connectionProvider.dispose();
+    }
+}
@@ -1,49 +1,37 @@
 package com.nfc4care.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpHeaders;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
+@ConditionalOnProperty(name = "nfc4care.anchoring.ledger", havingValue = "cardano", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
-public class CardanoService {
+public class CardanoService implements AnchoringLedger {
     
-    private final WebClient webClient;
-    private final ObjectMapper objectMapper;
+    private final BlockfrostClient blockfrostClient;
     
-    @Value("${blockfrost.api.key}")
-    private String blockfrostApiKey;
-    
-    @Value("${blockfrost.api.base-url}")
-    private String blockfrostBaseUrl;
-    
-    public String sendToBlockchain(String patientId, String action, String content, String authorId) {
+    /**
+     * Ancre une racine de Merkle : une transaction couvre tout un lot d'enregistrements
+     */
+    @Override
+    public String anchor(String merkleRoot, int recordCount) {
         try {
-            // Générer le hash SHA-256 du contenu
-            String hash = generateSHA256Hash(content);
-            
-            // Créer les métadonnées
-            Map<String, Object> metadata = createMetadata(patientId, action, hash, authorId);
+            Map<String, Object> metadata = createMetadata(merkleRoot, recordCount);
             
             // Envoyer la transaction à Cardano via Blockfrost
             String transactionHash = sendTransaction(metadata);
             
-            log.info("Transaction envoyée à Cardano: {}", transactionHash);
+            log.info("Transaction envoyée à Cardano: {} ({} enregistrements)", transactionHash, recordCount);
             return transactionHash;
             
         } catch (Exception e) {
@@ -52,27 +40,10 @@ public class CardanoService {
         }
     }
     
-    private String generateSHA256Hash(String content) throws NoSuchAlgorithmException {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        byte[] hash = digest.digest(content.getBytes(StandardCharsets.UTF_8));
-        
-        StringBuilder hexString = new StringBuilder();
-        for (byte b : hash) {
-            String hex = Integer.toHexString(0xff & b);
-            if (hex.length() == 1) {
-                hexString.append('0');
-            }
-            hexString.append(hex);
-        }
-        return hexString.toString();
-    }
-    
-    private Map<String, Object> createMetadata(String patientId, String action, String hash, String authorId) {
+    private Map<String, Object> createMetadata(String merkleRoot, int recordCount) {
         Map<String, Object> metadata = new HashMap<>();
-        metadata.put("patient_id", patientId);
-        metadata.put("action", action);
-        metadata.put("hash", hash);
-        metadata.put("author_id", authorId);
+        metadata.put("merkle_root", merkleRoot);
+        metadata.put("record_count", recordCount);
         metadata.put("timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
         return metadata;
     }
@@ -81,35 +52,26 @@ public class CardanoService {
         // Note: Cette implémentation est simplifiée
         // En production, vous devriez implémenter la logique complète de transaction Cardano
         
-        return webClient.post()
-                .uri(blockfrostBaseUrl + "/tx/submit")
-                .header(HttpHeaders.AUTHORIZATION, "Bearer " + blockfrostApiKey)
-                .header(HttpHeaders.CONTENT_TYPE, "application/cbor")
-                .bodyValue(metadata)
-                .retrieve()
-                .bodyToMono(JsonNode.class)
-                .map(response -> response.get("tx_hash").asText())
-                .block();
+        return blockfrostClient.post("submit", "/tx/submit", metadata)
+                .get("tx_hash").asText();
     }
     
-    public boolean verifyTransaction(String transactionHash, String expectedHash) {
+    @Override
+    public Optional<String> anchoredRoot(String transactionHash) {
         try {
-            JsonNode transaction = webClient.get()
-                    .uri(blockfrostBaseUrl + "/tx/" + transactionHash + "/metadata")
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + blockfrostApiKey)
-                    .retrieve()
-                    .bodyToMono(JsonNode.class)
-                    .block();
+            JsonNode transaction = blockfrostClient.get("metadata", "/tx/{hash}/metadata", transactionHash).orElse(null);
             
-            if (transaction != null && transaction.has("hash")) {
-                String storedHash = transaction.get("hash").asText();
-                return storedHash.equals(expectedHash);
+            if (transaction != null && transaction.has("merkle_root")) {
+                return Optional.of(transaction.get("merkle_root").asText());
             }
             
-            return false;
+            return Optional.empty();
+        } catch (LedgerUnavailableException e) {
+            log.warn("Vérification de la transaction {} impossible: {}", transactionHash, e.getMessage());
+            return Optional.empty();
         } catch (Exception e) {
             log.error("Erreur lors de la vérification de la transaction: {}", e.getMessage(), e);
-            return false;
+            return Optional.empty();
         }
     }
-} 
\ No newline at end of file
+}
@@ -1,15 +1,22 @@
 package com.nfc4care.service;
 
+import com.nfc4care.dto.ConsultationDetail;
 import com.nfc4care.dto.ConsultationDto;
+import com.nfc4care.dto.ConsultationSummary;
+import com.nfc4care.dto.CursorPage;
 import com.nfc4care.entity.Consultation;
 import com.nfc4care.entity.DossierMedical;
 import com.nfc4care.entity.Professionnel;
 import com.nfc4care.repository.ConsultationRepository;
 import com.nfc4care.repository.DossierMedicalRepository;
 import com.nfc4care.repository.ProfessionnelRepository;
+import com.nfc4care.security.ProfessionnelPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -23,35 +30,76 @@ public class ConsultationService {
     private final ConsultationRepository consultationRepository;
     private final DossierMedicalRepository dossierMedicalRepository;
     private final ProfessionnelRepository professionnelRepository;
+    private final RecordHasher recordHasher;
+    private final AnchoringService anchoringService;
+    private final ApplicationEventPublisher eventPublisher;
     
-    public List<Consultation> getAllConsultations() {
+    public static final int DEFAULT_TIMELINE_SIZE = 20;
+    public static final int MAX_TIMELINE_SIZE = 100;
+    
+    public List<ConsultationSummary> getAllConsultations() {
         log.info("Récupération de toutes les consultations");
-        return consultationRepository.findAll();
+        return consultationRepository.findAllSummaries();
     }
     
-    public List<Consultation> getConsultationsByPatientId(Long patientId) {
+    public List<ConsultationSummary> getConsultationsByPatientId(Long patientId) {
         log.info("Récupération des consultations pour le patient: {}", patientId);
-        return consultationRepository.findByPatientIdOrderByDateConsultationDesc(patientId);
+        return consultationRepository.findSummariesByPatientId(patientId);
+    }
+    
+    /**
+     * Chronologie paginée par curseur (date_consultation, id) d'un dossier médical :
+     * le coût d'une page ne dépend pas du nombre total de consultations du patient
+     */
+    public CursorPage<ConsultationSummary> getTimeline(Long dossierMedicalId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_TIMELINE_SIZE));
+        Limit fetch = Limit.of(pageSize + 1);
+        
+        List<ConsultationSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = consultationRepository.findTimeline(dossierMedicalId, fetch);
+        } else {
+            String[] values = KeysetCursor.decode(cursor, 2);
+            rows = consultationRepository.findTimelineBefore(dossierMedicalId,
+                    KeysetCursor.parseDateTime(values[0]), Long.valueOf(values[1]), fetch);
+        }
+        
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            ConsultationSummary last = rows.get(pageSize - 1);
+            nextCursor = KeysetCursor.encode(last.dateConsultation().toString(), last.id().toString());
+        }
+        return new CursorPage<>(rows, nextCursor, pageSize);
     }
     
-    public Optional<Consultation> getConsultationById(Long id) {
+    public Optional<Long> getDossierMedicalIdForPatient(Long patientId) {
+        return dossierMedicalRepository.findIdByPatientId(patientId);
+    }
+    
+    public Optional<ConsultationDetail> getConsultationById(Long id) {
         log.info("Récupération de la consultation: {}", id);
-        return consultationRepository.findById(id);
+        return consultationRepository.findDetailById(id);
     }
     
-    public Consultation createConsultation(ConsultationDto consultationDto) {
+    /**
+     * Crée une consultation au nom du professionnel authentifié. Le professionnel est référencé
+     * par son id (proxy JPA) : aucune lecture de la table des professionnels.
+     * L'ancrage de l'empreinte est planifié dans la même transaction (outbox).
+     */
+    @Transactional
+    public Consultation createConsultation(ConsultationDto consultationDto, ProfessionnelPrincipal auteur) {
         log.info("Création d'une nouvelle consultation");
         
         // Récupérer le dossier médical
         DossierMedical dossierMedical = dossierMedicalRepository.findById(consultationDto.getDossierMedicalId())
             .orElseThrow(() -> new RuntimeException("Dossier médical non trouvé"));
         
-        // Récupérer le professionnel (pour l'instant, on utilise le premier disponible)
-        List<Professionnel> professionnels = professionnelRepository.findAll();
-        if (professionnels.isEmpty()) {
-            throw new RuntimeException("Aucun professionnel disponible");
+        // Auteur : le professionnel authentifié par JwtAuthenticationFilter
+        if (auteur == null) {
+            throw new RuntimeException("Professionnel authentifié requis");
         }
-        Professionnel professionnel = professionnels.get(0);
+        Professionnel professionnel = professionnelRepository.getReferenceById(auteur.id());
         
         // Créer la consultation
         Consultation consultation = new Consultation();
@@ -67,31 +115,18 @@ public class ConsultationService {
         consultation.setObservations(consultationDto.getObservations());
         consultation.setProchainRdv(consultationDto.getProchainRdv());
         
-        // Générer le hash du contenu (simplifié)
-        String content = consultationDto.getMotifConsultation() + 
-                        (consultationDto.getDiagnostic() != null ? consultationDto.getDiagnostic() : "") + 
-                        (consultationDto.getTraitementPrescrit() != null ? consultationDto.getTraitementPrescrit() : "");
-        try {
-            java.security.MessageDigest digest = java.security.MessageDigest.getInstance("SHA-256");
-            byte[] hashBytes = digest.digest(content.getBytes());
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hashBytes) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
-            }
-            consultation.setHashContenu(hexString.toString());
-        } catch (Exception e) {
-            log.error("Erreur lors de la génération du hash", e);
-            consultation.setHashContenu("error");
-        }
+        // Empreinte canonique du contenu
+        consultation.setHashContenu(recordHasher.hash(consultation));
         
         Consultation savedConsultation = consultationRepository.save(consultation);
+        anchoringService.enqueue(AnchoredRecordType.CONSULTATION, savedConsultation.getId(), savedConsultation.getHashContenu());
+        eventPublisher.publishEvent(new PatientRecordChangedEvent(dossierMedical.getPatient().getId()));
         log.info("✅ Consultation créée avec l'ID: {}", savedConsultation.getId());
         
         return savedConsultation;
     }
     
+    @Transactional
     public Consultation updateConsultation(Long id, ConsultationDto consultationDto) {
         log.info("Mise à jour de la consultation: {}", id);
         
@@ -124,39 +159,35 @@ public class ConsultationService {
             consultation.setProchainRdv(consultationDto.getProchainRdv());
         }
         
-        // Mettre à jour le hash du contenu
-        String content = consultation.getMotifConsultation() + 
-                        consultation.getDiagnostic() + 
-                        consultation.getTraitementPrescrit();
-        try {
-            java.security.MessageDigest digest = java.security.MessageDigest.getInstance("SHA-256");
-            byte[] hashBytes = digest.digest(content.getBytes());
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hashBytes) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
-            }
-            consultation.setHashContenu(hexString.toString());
-        } catch (Exception e) {
-            log.error("Erreur lors de la génération du hash", e);
-            consultation.setHashContenu("error");
+        // Mettre à jour le hash du contenu ; un contenu modifié doit être ancré à nouveau
+        String hashContenu = recordHasher.hash(consultation);
+        boolean contentChanged = !hashContenu.equals(consultation.getHashContenu());
+        if (contentChanged) {
+            consultation.setHashContenu(hashContenu);
+            consultation.setBlockchainTxnHash(null);
+            consultation.setMerkleProof(null);
         }
         
         Consultation updatedConsultation = consultationRepository.save(consultation);
+        if (contentChanged) {
+            anchoringService.enqueue(AnchoredRecordType.CONSULTATION, updatedConsultation.getId(), hashContenu);
+        }
+        eventPublisher.publishEvent(new PatientRecordChangedEvent(updatedConsultation.getDossierMedical().getPatient().getId()));
         log.info("✅ Consultation mise à jour");
         
         return updatedConsultation;
     }
     
+    @Transactional
     public void deleteConsultation(Long id) {
         log.info("Suppression de la consultation: {}", id);
         
-        if (!consultationRepository.existsById(id)) {
-            throw new RuntimeException("Consultation non trouvée");
-        }
+        Long patientId = consultationRepository.findPatientIdById(id)
+            .orElseThrow(() -> new RuntimeException("Consultation non trouvée"));
         
         consultationRepository.deleteById(id);
+        anchoringService.cancel(AnchoredRecordType.CONSULTATION, id);
+        eventPublisher.publishEvent(new PatientRecordChangedEvent(patientId));
         log.info("✅ Consultation supprimée");
     }
 } 
\ No newline at end of file
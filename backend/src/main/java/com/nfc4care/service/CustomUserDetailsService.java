@@ -1,20 +1,40 @@
 package com.nfc4care.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.nfc4care.repository.ProfessionnelRepository;
-import lombok.RequiredArgsConstructor;
+import com.nfc4care.security.ProfessionnelPrincipal;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class CustomUserDetailsService implements UserDetailsService {
     
     private final ProfessionnelRepository professionnelRepository;
+    private final Cache<String, ProfessionnelPrincipal> principalCache;
+    
+    public CustomUserDetailsService(
+            ProfessionnelRepository professionnelRepository,
+            @Value("${spring.security.principal-cache.maximum-size:1000}") long maximumSize,
+            @Value("${spring.security.principal-cache.ttl:300000}") long ttlMillis
+    ) {
+        this.professionnelRepository = professionnelRepository;
+        this.principalCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .build();
+    }
     
+    /**
+     * Charge le professionnel complet (mot de passe inclus), utilisé pour la connexion
+     */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         return professionnelRepository.findByEmail(email)
@@ -23,4 +43,36 @@ public class CustomUserDetailsService implements UserDetailsService {
                     return new UsernameNotFoundException("Utilisateur non trouvé avec l'email: " + email);
                 });
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Charge l'instantané du professionnel authentifié par JWT, depuis le cache si possible
+     */
+    public ProfessionnelPrincipal loadPrincipal(String email) throws UsernameNotFoundException {
+        ProfessionnelPrincipal cached = principalCache.getIfPresent(email);
+        if (cached != null) {
+            return cached;
+        }
+        
+        ProfessionnelPrincipal principal = professionnelRepository.findByEmail(email)
+                .map(ProfessionnelPrincipal::of)
+                .orElseThrow(() -> {
+                    log.error("Utilisateur non trouvé avec l'email: {}", email);
+                    return new UsernameNotFoundException("Utilisateur non trouvé avec l'email: " + email);
+                });
+        principalCache.put(email, principal);
+        return principal;
+    }
+    
+    /**
+     * Retire un professionnel du cache (par email et par identifiant, en cas de changement d'email)
+     */
+    public void evictPrincipal(Long id, String email) {
+        if (email != null) {
+            principalCache.invalidate(email);
+        }
+        if (id != null) {
+            principalCache.asMap().values().removeIf(principal -> id.equals(principal.id()));
+        }
+        log.debug("Cache du professionnel invalidé: {}", email);
+    }
+}
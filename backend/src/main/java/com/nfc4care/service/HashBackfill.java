@@ -0,0 +1,159 @@
+package com.nfc4care.service;
+
+import com.nfc4care.entity.Consultation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Migration ponctuelle vers l'encodage v1 de {@link RecordHasher} des empreintes des enregistrements jamais ancrés.
+ *
+ * Désactivée par défaut : {@code rehash-unanchored: true} le temps d'un démarrage, après une reprise de données
+ * antérieures à l'encodage v1. Seules les empreintes héritées sont réécrites : valeurs de remplissage
+ * (données de démonstration, {@code repeat('0', 64)}, "error") et empreintes de l'ancien encodeur des consultations,
+ * recalculées à partir du contenu actuel. Toute autre différence est une modification hors application :
+ * elle est relevée dans integrity_mismatches (sans contrôle complet associé) et l'empreinte est conservée.
+ * Les enregistrements déjà ancrés ne sont jamais modifiés : leur empreinte est celle inscrite dans le registre.
+ * L'empreinte en attente dans l'outbox est mise à jour dans la même transaction que l'enregistrement.
+ */
+@Component
+@Slf4j
+public class HashBackfill {
+
+    private static final int UPDATE_BATCH_SIZE = 500;
+    private static final String PLACEHOLDER_HASH = "0".repeat(64);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final RecordHasher recordHasher;
+    private final boolean enabled;
+
+    public HashBackfill(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            RecordHasher recordHasher,
+            @Value("${nfc4care.anchoring.rehash-unanchored:false}") boolean enabled
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.recordHasher = recordHasher;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Réécrit les empreintes héritées des enregistrements non ancrés et relève les autres écarts
+     *
+     * @return nombre d'enregistrements réécrits
+     */
+    public int rehashUnanchored() {
+        if (!enabled) {
+            return 0;
+        }
+        int total = 0;
+        for (AnchoredRecordType type : AnchoredRecordType.values()) {
+            total += rehash(type);
+        }
+        if (total > 0) {
+            log.info("{} empreintes d'enregistrements non ancrés recalculées", total);
+        }
+        return total;
+    }
+
+    private int rehash(AnchoredRecordType type) {
+        List<Object[]> changes = new ArrayList<>();
+        List<Object[]> mismatches = new ArrayList<>();
+        jdbcTemplate.query(AnchoredRecords.select(type) + " WHERE r.blockchain_txn_hash IS NULL ORDER BY r.id", rs -> {
+            String storedHash = rs.getString("hash_contenu");
+            Object record = AnchoredRecords.read(type, rs);
+            String computedHash = AnchoredRecords.hash(recordHasher, record);
+            if (computedHash.equals(storedHash)) {
+                return;
+            }
+            if (isLegacy(storedHash, record)) {
+                changes.add(new Object[]{computedHash, rs.getLong("id"), storedHash});
+            } else {
+                mismatches.add(new Object[]{type.name(), rs.getLong("id"), storedHash, computedHash});
+            }
+        });
+
+        if (!mismatches.isEmpty()) {
+            record(type, mismatches);
+        }
+        int rewritten = 0;
+        for (int from = 0; from < changes.size(); from += UPDATE_BATCH_SIZE) {
+            rewritten += apply(type, changes.subList(from, Math.min(from + UPDATE_BATCH_SIZE, changes.size())));
+        }
+        return rewritten;
+    }
+
+    /**
+     * Empreinte de remplissage, ou empreinte de l'ancien encodeur : SHA-256 (UTF-8, hexadécimal) de la concaténation
+     * motif + diagnostic + traitement, les champs absents écrits "" (création) ou "null" (modification)
+     */
+    private static boolean isLegacy(String storedHash, Object record) {
+        if (storedHash == null || PLACEHOLDER_HASH.equals(storedHash) || !storedHash.matches("[0-9a-f]{64}")) {
+            return true;
+        }
+        if (record instanceof Consultation consultation) {
+            String motif = consultation.getMotifConsultation();
+            String diagnostic = consultation.getDiagnostic();
+            String traitement = consultation.getTraitementPrescrit();
+            String created = motif + (diagnostic != null ? diagnostic : "") + (traitement != null ? traitement : "");
+            return storedHash.equals(sha256(created)) || storedHash.equals(sha256(motif + diagnostic + traitement));
+        }
+        return false;
+    }
+
+    private static String sha256(String content) {
+        try {
+            return RecordHasher.toHex(MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    // Un écart déjà relevé par une précédente exécution n'est pas ajouté de nouveau
+    private void record(AnchoredRecordType type, List<Object[]> mismatches) {
+        mismatches.forEach(mismatch -> log.warn("⚠️ Empreinte non ancrée modifiée hors application: {} {} (stockée {}, recalculée {}), conservée",
+                type, mismatch[1], mismatch[2], mismatch[3]));
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate("INSERT INTO integrity_mismatches (sweep_id, record_type, record_id, stored_hash, computed_hash, detected_at) " +
+                        "SELECT NULL, ?, ?, ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM integrity_mismatches m WHERE m.sweep_id IS NULL " +
+                        "AND m.record_type = ? AND m.record_id = ? AND m.stored_hash = ? AND m.computed_hash = ?)",
+                mismatches.stream()
+                        .map(m -> new Object[]{m[0], m[1], m[2], m[3], now, m[0], m[1], m[2], m[3]})
+                        .toList());
+    }
+
+    // Mise à jour conditionnelle : une ligne modifiée ou ancrée entre-temps n'est pas touchée
+    private int apply(AnchoredRecordType type, List<Object[]> changes) {
+        List<Object[]> outbox = changes.stream()
+                .map(change -> new Object[]{change[0], type.name(), change[1], change[2]})
+                .toList();
+        int[] counts = transaction.execute(status -> {
+            int[] updated = jdbcTemplate.batchUpdate("UPDATE " + type.table() + " SET hash_contenu = ? " +
+                    "WHERE id = ? AND hash_contenu = ? AND blockchain_txn_hash IS NULL", changes);
+            jdbcTemplate.batchUpdate("UPDATE anchoring_outbox SET hash_contenu = ? " +
+                    "WHERE record_type = ? AND record_id = ? AND hash_contenu = ?", outbox);
+            return updated;
+        });
+        int rewritten = 0;
+        for (int count : counts) {
+            if (count != 0) {
+                rewritten++;
+            }
+        }
+        return rewritten;
+    }
+}
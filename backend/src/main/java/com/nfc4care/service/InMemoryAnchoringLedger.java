@@ -0,0 +1,41 @@
+package com.nfc4care.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registre local en mémoire ({@code nfc4care.anchoring.ledger=memory}, profils {@code dev} et {@code test}).
+ * Les ancrages sont perdus au redémarrage : jamais en production, où le registre par défaut est Cardano.
+ */
+@Component
+@ConditionalOnProperty(name = "nfc4care.anchoring.ledger", havingValue = "memory")
+@Slf4j
+public class InMemoryAnchoringLedger implements AnchoringLedger {
+    
+    private final Map<String, String> rootsByTransaction = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    void warnIfMisconfigured() {
+        log.warn("Registre d'ancrage en mémoire actif : les ancrages seront perdus au redémarrage (développement uniquement)");
+    }
+    
+    @Override
+    public String anchor(String merkleRoot, int recordCount) {
+        String transactionHash = UUID.randomUUID().toString().replace("-", "");
+        rootsByTransaction.put(transactionHash, merkleRoot);
+        log.debug("Racine {} ancrée localement ({} enregistrements): {}", merkleRoot, recordCount, transactionHash);
+        return transactionHash;
+    }
+    
+    @Override
+    public Optional<String> anchoredRoot(String transactionHash) {
+        return Optional.ofNullable(rootsByTransaction.get(transactionHash));
+    }
+}
@@ -0,0 +1,457 @@
+package com.nfc4care.service;
+
+import com.nfc4care.dto.IntegritySweepStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Contrôle complet des empreintes : recalcule l'empreinte canonique de chaque consultation et dossier médical
+ * et la compare à hashContenu.
+ *
+ * Les tables sont parcourues par id croissant avec un curseur côté serveur ({@code fetch-size} lignes par aller-retour),
+ * en segments de {@code segment-size} lignes lus chacun dans une transaction en lecture seule courte.
+ * Après chaque segment, le dernier id contrôlé et les écarts sont enregistrés : un contrôle interrompu
+ * (arrêt du nœud, pause) reprend là où il s'était arrêté. Les empreintes d'un bloc sont recalculées en parallèle
+ * et le débit est limité à {@code records-per-second} pour ne pas concurrencer le trafic transactionnel.
+ *
+ * Un seul nœud exécute le contrôle : il le réclame en base par un bail, renouvelé à chaque point de reprise.
+ * Un contrôle RUNNING dont le dernier point de reprise date de plus de {@code lease} ms est considéré abandonné
+ * (nœud arrêté) et peut être repris par un autre nœud ; l'ancien exécutant s'arrête alors à son point de reprise suivant.
+ */
+@Component
+@Slf4j
+public class IntegritySweepService {
+
+    public static final String RUNNING = "RUNNING";
+    public static final String PAUSED = "PAUSED";
+    public static final String FAILED = "FAILED";
+    public static final String COMPLETED = "COMPLETED";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate cursorTemplate;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final RecordHasher recordHasher;
+    private final ScheduledExecutorService runner;
+    private final ForkJoinPool hashers;
+    private final TokenBucket throttle;
+    private final int fetchSize;
+    private final int segmentSize;
+    private final long leaseMillis;
+    private final Counter matches;
+    private final Counter mismatches;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    // Dernier renouvellement du bail par ce nœud (updated_at écrit), pour ne pas écrire sur un contrôle repris ailleurs
+    private volatile Timestamp leaseRenewedAt;
+    private volatile boolean pauseRequested;
+    private volatile boolean stopping;
+    private volatile long runStartedNanos;
+    private volatile long checkedThisRun;
+
+    public IntegritySweepService(
+            JdbcTemplate jdbcTemplate,
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            RecordHasher recordHasher,
+            MeterRegistry meterRegistry,
+            @Value("${nfc4care.integrity.sweep.interval:86400000}") long intervalMillis,
+            @Value("${nfc4care.integrity.sweep.fetch-size:500}") int fetchSize,
+            @Value("${nfc4care.integrity.sweep.segment-size:20000}") int segmentSize,
+            @Value("${nfc4care.integrity.sweep.parallelism:0}") int parallelism,
+            @Value("${nfc4care.integrity.sweep.records-per-second:2000}") double recordsPerSecond,
+            @Value("${nfc4care.integrity.sweep.lease:300000}") long leaseMillis
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        // PostgreSQL n'utilise un curseur (lecture par blocs) qu'avec une taille de fetch et hors autocommit
+        this.cursorTemplate = new JdbcTemplate(dataSource);
+        this.cursorTemplate.setFetchSize(fetchSize);
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.recordHasher = recordHasher;
+        this.fetchSize = fetchSize;
+        this.segmentSize = segmentSize;
+        this.leaseMillis = leaseMillis;
+        if (leaseMillis < 2_000.0 * segmentSize / recordsPerSecond) {
+            log.warn("Bail du contrôle d'intégrité ({} ms) plus court que deux segments au débit maximum : " +
+                    "un contrôle actif pourrait être repris par un autre nœud", leaseMillis);
+        }
+        this.throttle = new TokenBucket(fetchSize, recordsPerSecond);
+        this.hashers = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.matches = meterRegistry.counter("nfc4care.integrity.sweep.records", "result", "match");
+        this.mismatches = meterRegistry.counter("nfc4care.integrity.sweep.records", "result", "mismatch");
+
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "integrity-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Une reprise programmée à l'expiration d'un bail n'est pas exécutée après l'arrêt
+        scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.runner = scheduler;
+        if (intervalMillis > 0) {
+            scheduler.scheduleWithFixedDelay(this::startQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Reprend un contrôle interrompu par l'arrêt du nœud. Tant que son bail est valide (arrêt récent,
+     * ou contrôle en cours sur un autre nœud), une nouvelle tentative est faite à l'expiration du bail.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        latest().filter(sweep -> RUNNING.equals(sweep.status())).ifPresent(sweep -> {
+            log.info("Reprise du contrôle d'intégrité {} ({} après l'id {})", sweep.id(), sweep.recordType(), sweep.lastId());
+            if (start().isEmpty()) {
+                runner.schedule(this::resumeQuietly, leaseMillis, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    /**
+     * Reprend le dernier contrôle non terminé, ou en démarre un nouveau ; vide si un contrôle est déjà en cours
+     */
+    public Optional<IntegritySweepStatus> start() {
+        if (!running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        Optional<Long> claimed;
+        try {
+            claimed = claim();
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        if (claimed.isEmpty()) {
+            running.set(false);
+            return Optional.empty();
+        }
+
+        Long sweepId = claimed.get();
+        pauseRequested = false;
+        runStartedNanos = System.nanoTime();
+        checkedThisRun = 0;
+        runner.execute(() -> run(sweepId));
+        return latest();
+    }
+
+    /**
+     * Demande l'arrêt du contrôle en cours à la fin du segment courant ; il pourra être repris
+     */
+    public boolean pause() {
+        pauseRequested = true;
+        return running.get();
+    }
+
+    public Optional<IntegritySweepStatus> latest() {
+        return jdbcTemplate.query(
+                "SELECT * FROM integrity_sweeps ORDER BY id DESC LIMIT 1", this::toStatus).stream().findFirst();
+    }
+
+    public List<Map<String, Object>> mismatches(Long sweepId, long afterId, int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT id, record_type, record_id, stored_hash, computed_hash, detected_at FROM integrity_mismatches " +
+                "WHERE sweep_id = ? AND id > ? ORDER BY id LIMIT ?",
+                sweepId, afterId, limit);
+    }
+
+    private void startQuietly() {
+        try {
+            start();
+        } catch (Exception e) {
+            log.error("Impossible de démarrer le contrôle d'intégrité: {}", e.getMessage(), e);
+        }
+    }
+
+    private void resumeQuietly() {
+        try {
+            resumeInterrupted();
+        } catch (Exception e) {
+            log.error("Impossible de reprendre le contrôle d'intégrité: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Réclame le dernier contrôle non terminé, ou en crée un. Le verrou consultatif sérialise les nœuds
+     * entre la lecture et l'écriture ; la mise à jour conditionnelle refuse un contrôle dont le bail est valide.
+     *
+     * @return id du contrôle réclamé, vide s'il est exécuté par un autre nœud
+     */
+    private Optional<Long> claim() {
+        return transaction.execute(status -> {
+            jdbcTemplate.queryForObject("SELECT 1 FROM pg_advisory_xact_lock(hashtext('integrity_sweeps'))", Integer.class);
+            Timestamp now = now();
+            Optional<IntegritySweepStatus> open = latest().filter(sweep -> !COMPLETED.equals(sweep.status()));
+            if (open.isEmpty()) {
+                leaseRenewedAt = now;
+                return Optional.of(createSweep(now));
+            }
+
+            Long sweepId = open.get().id();
+            int claimed = jdbcTemplate.update("UPDATE integrity_sweeps SET status = ?, updated_at = ? " +
+                    "WHERE id = ? AND (status <> ? OR updated_at < ?)",
+                    RUNNING, now, sweepId, RUNNING, new Timestamp(now.getTime() - leaseMillis));
+            if (claimed == 0) {
+                log.info("Contrôle d'intégrité {} déjà en cours sur un autre nœud", sweepId);
+                return Optional.<Long>empty();
+            }
+            leaseRenewedAt = now;
+            return Optional.of(sweepId);
+        });
+    }
+
+    private Long createSweep(Timestamp now) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO integrity_sweeps (status, record_type, last_id, checked, mismatches, started_at, updated_at) " +
+                "VALUES (?, ?, 0, 0, 0, ?, ?) RETURNING id",
+                Long.class, RUNNING, AnchoredRecordType.values()[0].name(), now, now);
+    }
+
+    /**
+     * Met à jour le contrôle et renouvelle le bail, si ce nœud le détient encore
+     *
+     * @return faux si le contrôle a été repris par un autre nœud ou n'est plus RUNNING
+     */
+    private boolean renew(Long sweepId, String assignments, Object... values) {
+        Timestamp now = now();
+        Object[] args = new Object[values.length + 4];
+        System.arraycopy(values, 0, args, 0, values.length);
+        args[values.length] = now;
+        args[values.length + 1] = sweepId;
+        args[values.length + 2] = RUNNING;
+        args[values.length + 3] = leaseRenewedAt;
+        int updated = jdbcTemplate.update("UPDATE integrity_sweeps SET " + assignments + ", updated_at = ? " +
+                "WHERE id = ? AND status = ? AND updated_at = ?", args);
+        if (updated == 0) {
+            return false;
+        }
+        leaseRenewedAt = now;
+        return true;
+    }
+
+    private void run(Long sweepId) {
+        try {
+            IntegritySweepStatus sweep = latest().filter(s -> s.id().equals(sweepId)).orElseThrow();
+            AnchoredRecordType[] types = AnchoredRecordType.values();
+            long lastId = sweep.lastId();
+            for (int t = AnchoredRecordType.valueOf(sweep.recordType()).ordinal(); t < types.length; t++) {
+                AnchoredRecordType type = types[t];
+                Segment segment;
+                do {
+                    if (pauseRequested) {
+                        finish(sweepId, PAUSED);
+                        log.info("Contrôle d'intégrité {} mis en pause ({} après l'id {})", sweepId, type, lastId);
+                        return;
+                    }
+                    segment = readSegment(type, lastId);
+                    lastId = segment.lastId();
+                    checkpoint(sweepId, type, segment);
+                } while (segment.rows() == segmentSize);
+
+                // Table suivante : reprise à partir du premier id
+                lastId = 0;
+                if (t + 1 < types.length && !renew(sweepId, "record_type = ?, last_id = 0", types[t + 1].name())) {
+                    throw new ClaimLost();
+                }
+            }
+            finish(sweepId, COMPLETED);
+            latest().ifPresent(status -> log.info("✅ Contrôle d'intégrité {} terminé: {} enregistrements, {} écarts",
+                    sweepId, status.checked(), status.mismatches()));
+        } catch (Stopped e) {
+            // Le contrôle reste RUNNING : il reprend au dernier point enregistré au prochain démarrage
+            log.info("Contrôle d'intégrité {} interrompu par l'arrêt du nœud", sweepId);
+        } catch (ClaimLost e) {
+            log.warn("Contrôle d'intégrité {} repris par un autre nœud ou mis à jour hors de ce nœud, arrêt", sweepId);
+        } catch (Exception e) {
+            log.error("Échec du contrôle d'intégrité {}: {}", sweepId, e.getMessage(), e);
+            finish(sweepId, FAILED);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Lit au plus {@code segment-size} lignes après {@code lastId} dans une transaction en lecture seule,
+     * par blocs de {@code fetch-size} lignes dont les empreintes sont recalculées en parallèle
+     */
+    private Segment readSegment(AnchoredRecordType type, long lastId) {
+        String sql = AnchoredRecords.select(type) + " WHERE r.id > ? ORDER BY r.id LIMIT ?";
+
+        return readOnlyTransaction.execute(status -> {
+            List<Row> block = new ArrayList<>(fetchSize);
+            List<Row> found = new ArrayList<>();
+            long[] progress = {lastId, 0};
+            cursorTemplate.query(sql, rs -> {
+                block.add(toRow(type, rs));
+                if (block.size() == fetchSize) {
+                    found.addAll(checkBlock(block));
+                    progress[0] = block.get(block.size() - 1).id();
+                    progress[1] += block.size();
+                    block.clear();
+                }
+            }, lastId, segmentSize);
+            if (!block.isEmpty()) {
+                found.addAll(checkBlock(block));
+                progress[0] = block.get(block.size() - 1).id();
+                progress[1] += block.size();
+            }
+            return new Segment(progress[0], (int) progress[1], found);
+        });
+    }
+
+    private List<Row> checkBlock(List<Row> block) {
+        if (stopping) {
+            throw new Stopped();
+        }
+        acquire(block.size());
+        List<Row> found = hashers.submit(() -> block.parallelStream()
+                .map(row -> row.withComputedHash(row.computeHash(recordHasher)))
+                .filter(row -> !row.computedHash().equals(row.storedHash()))
+                .toList()).join();
+        matches.increment(block.size() - found.size());
+        mismatches.increment(found.size());
+        checkedThisRun += block.size();
+        return found;
+    }
+
+    /**
+     * Enregistre l'avancement et les écarts du segment, dans la transaction qui renouvelle le bail
+     */
+    private void checkpoint(Long sweepId, AnchoredRecordType type, Segment segment) {
+        boolean renewed = transaction.execute(status -> {
+            if (!renew(sweepId, "record_type = ?, last_id = ?, checked = checked + ?, mismatches = mismatches + ?",
+                    type.name(), segment.lastId(), segment.rows(), segment.mismatches().size())) {
+                return false;
+            }
+            if (!segment.mismatches().isEmpty()) {
+                segment.mismatches().forEach(row -> log.warn("⚠️ Empreinte modifiée: {} {} (stockée {}, recalculée {})",
+                        type, row.id(), row.storedHash(), row.computedHash()));
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO integrity_mismatches (sweep_id, record_type, record_id, stored_hash, computed_hash, detected_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)",
+                        segment.mismatches().stream()
+                                .map(row -> new Object[]{sweepId, type.name(), row.id(), row.storedHash(), row.computedHash(),
+                                        leaseRenewedAt})
+                                .toList());
+            }
+            return true;
+        });
+        if (!renewed) {
+            throw new ClaimLost();
+        }
+        log.debug("Contrôle d'intégrité {}: {} jusqu'à l'id {}, {} enregistrements/s",
+                sweepId, type, segment.lastId(), Math.round(recordsPerSecond()));
+    }
+
+    private void finish(Long sweepId, String status) {
+        if (!renew(sweepId, "status = ?, finished_at = ?", status, COMPLETED.equals(status) ? now() : null)) {
+            log.warn("Contrôle d'intégrité {} repris par un autre nœud, statut {} non enregistré", sweepId, status);
+        }
+    }
+
+    // Attend les jetons nécessaires au bloc : le débit moyen reste sous records-per-second
+    private void acquire(int permits) {
+        for (int i = 0; i < permits; i++) {
+            while (!throttle.tryAcquire()) {
+                if (stopping) {
+                    throw new Stopped();
+                }
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Contrôle d'intégrité interrompu", e);
+                }
+            }
+        }
+    }
+
+    private double recordsPerSecond() {
+        double seconds = (System.nanoTime() - runStartedNanos) / 1e9;
+        return seconds > 0 ? checkedThisRun / seconds : 0;
+    }
+
+    private IntegritySweepStatus toStatus(ResultSet rs, int rowNum) throws SQLException {
+        String status = rs.getString("status");
+        return new IntegritySweepStatus(
+                rs.getLong("id"),
+                status,
+                rs.getString("record_type"),
+                rs.getLong("last_id"),
+                rs.getLong("checked"),
+                rs.getLong("mismatches"),
+                RUNNING.equals(status) && running.get() ? recordsPerSecond() : 0,
+                toLocalDateTime(rs.getTimestamp("started_at")),
+                toLocalDateTime(rs.getTimestamp("updated_at")),
+                toLocalDateTime(rs.getTimestamp("finished_at")));
+    }
+
+    private static Row toRow(AnchoredRecordType type, ResultSet rs) throws SQLException {
+        return new Row(rs.getLong("id"), rs.getString("hash_contenu"), null, AnchoredRecords.read(type, rs));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    // Précision de la colonne TIMESTAMP : la valeur relue est égale à celle écrite (comparaison du bail)
+    private static Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+    }
+
+    // Le contrôle en cours est abandonné sans écrire son segment et sera repris au prochain démarrage
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        stopping = true;
+        runner.shutdown();
+        runner.awaitTermination(10, TimeUnit.SECONDS);
+        hashers.shutdownNow();
+    }
+
+    private record Row(long id, String storedHash, String computedHash, Object record) {
+
+        String computeHash(RecordHasher hasher) {
+            return AnchoredRecords.hash(hasher, record);
+        }
+
+        Row withComputedHash(String hash) {
+            return new Row(id, storedHash, Objects.requireNonNull(hash), null);
+        }
+    }
+
+    private record Segment(long lastId, int rows, List<Row> mismatches) {
+    }
+
+    private static final class Stopped extends RuntimeException {
+    }
+
+    private static final class ClaimLost extends RuntimeException {
+    }
+}
@@ -0,0 +1,140 @@
+package com.nfc4care.service;
+
+import com.nfc4care.dto.IntegrityReport;
+import com.nfc4care.repository.ConsultationRepository;
+import com.nfc4care.repository.DossierMedicalRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Vérifie qu'un enregistrement n'a pas été modifié depuis son ancrage : l'empreinte canonique
+ * est recalculée à partir des données stockées, puis la preuve de Merkle est rejouée
+ * et comparée à la racine enregistrée dans la transaction.
+ */
+@Service
+@Slf4j
+public class IntegrityVerificationService {
+
+    private final ConsultationRepository consultationRepository;
+    private final DossierMedicalRepository dossierMedicalRepository;
+    private final RecordHasher recordHasher;
+    private final LedgerVerificationCache ledgerVerificationCache;
+    private final Scheduler lookups;
+    private final int parallelism;
+
+    public IntegrityVerificationService(
+            ConsultationRepository consultationRepository,
+            DossierMedicalRepository dossierMedicalRepository,
+            RecordHasher recordHasher,
+            LedgerVerificationCache ledgerVerificationCache,
+            @Value("${nfc4care.integrity.parallelism:8}") int parallelism
+    ) {
+        this.consultationRepository = consultationRepository;
+        this.dossierMedicalRepository = dossierMedicalRepository;
+        this.recordHasher = recordHasher;
+        this.ledgerVerificationCache = ledgerVerificationCache;
+        this.parallelism = parallelism;
+        // Les lectures du registre sont bloquantes : pool dédié, borné au parallélisme configuré
+        this.lookups = Schedulers.newBoundedElastic(parallelism, 10_000, "integrity-verification");
+    }
+
+    public Optional<IntegrityReport> verify(AnchoredRecordType type, Long id) {
+        return load(type, List.of(id)).stream().findFirst()
+                .map(record -> report(type, record, anchoredRoot(record)));
+    }
+
+    /**
+     * Vérifie un lot d'enregistrements d'un même type. Les enregistrements sont lus en une requête
+     * et leurs empreintes recalculées immédiatement ; seules les lectures du registre (une par transaction distincte)
+     * sont faites en parallèle, au plus {@code parallelism} à la fois. Chaque résultat est émis dès qu'il est connu.
+     */
+    public Flux<IntegrityReport> verifyAll(AnchoredRecordType type, Collection<Long> ids) {
+        Set<Long> remaining = new LinkedHashSet<>(ids);
+        List<IntegrityReport> immediate = new ArrayList<>();
+        Map<String, List<StoredRecord>> byTransaction = new LinkedHashMap<>();
+
+        for (StoredRecord record : load(type, remaining)) {
+            remaining.remove(record.id());
+            if (record.blockchainTxnHash() == null || record.merkleProof() == null) {
+                immediate.add(report(type, record, Optional.empty()));
+            } else {
+                byTransaction.computeIfAbsent(record.blockchainTxnHash(), tx -> new ArrayList<>()).add(record);
+            }
+        }
+        remaining.forEach(id -> immediate.add(IntegrityReport.missing(type.name(), id)));
+        log.info("Vérification de {} enregistrements {} ({} transactions distinctes)", ids.size(), type, byTransaction.size());
+
+        Flux<IntegrityReport> anchored = Flux.fromIterable(byTransaction.entrySet())
+                .flatMap(entry -> Mono.fromCallable(() -> ledgerVerificationCache.anchoredRoot(entry.getKey()))
+                                .subscribeOn(lookups)
+                                .flatMapIterable(root -> entry.getValue().stream()
+                                        .map(record -> report(type, record, root))
+                                        .toList()),
+                        parallelism);
+        return Flux.fromIterable(immediate).concatWith(anchored);
+    }
+
+    /**
+     * Charge les enregistrements en une requête et recalcule leur empreinte
+     * (les ids des associations sont lus sans charger les entités liées)
+     */
+    private List<StoredRecord> load(AnchoredRecordType type, Collection<Long> ids) {
+        return switch (type) {
+            case CONSULTATION -> consultationRepository.findAllById(ids).stream()
+                    .map(consultation -> new StoredRecord(consultation.getId(), recordHasher.hash(consultation),
+                            consultation.getHashContenu(), consultation.getMerkleProof(), consultation.getBlockchainTxnHash()))
+                    .toList();
+            case DOSSIER_MEDICAL -> dossierMedicalRepository.findAllById(ids).stream()
+                    .map(dossier -> new StoredRecord(dossier.getId(), recordHasher.hash(dossier),
+                            dossier.getHashContenu(), dossier.getMerkleProof(), dossier.getBlockchainTxnHash()))
+                    .toList();
+        };
+    }
+
+    private Optional<String> anchoredRoot(StoredRecord record) {
+        if (record.blockchainTxnHash() == null || record.merkleProof() == null) {
+            return Optional.empty();
+        }
+        return ledgerVerificationCache.anchoredRoot(record.blockchainTxnHash());
+    }
+
+    private IntegrityReport report(AnchoredRecordType type, StoredRecord record, Optional<String> anchoredRoot) {
+        boolean contentMatches = record.computedHash().equals(record.storedHash());
+        boolean anchored = anchoredRoot.map(root -> isIncluded(record, root)).orElse(false);
+        log.debug("Intégrité {} {}: contenu {}, ancrage {}", type, record.id(), contentMatches, anchored);
+        return new IntegrityReport(type.name(), record.id(), true, contentMatches, anchored, record.blockchainTxnHash());
+    }
+
+    private boolean isIncluded(StoredRecord record, String anchoredRoot) {
+        try {
+            return MerkleTree.rootFromProof(record.storedHash(), record.merkleProof()).equals(anchoredRoot);
+        } catch (IllegalArgumentException e) {
+            log.warn("Preuve de Merkle invalide pour la transaction {}: {}", record.blockchainTxnHash(), e.getMessage());
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        lookups.dispose();
+    }
+
+    private record StoredRecord(Long id, String computedHash, String storedHash, String merkleProof,
+                                String blockchainTxnHash) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.nfc4care.service;
+
+/**
+ * Tokens émis lors d'une connexion ou d'un rafraîchissement.
+ * {@code refreshToken} est {@code null} en mode session.
+ */
+public record IssuedTokens(String accessToken, String refreshToken) {
+}
@@ -3,10 +3,14 @@ package com.nfc4care.service;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import javax.crypto.SecretKey;
 import java.time.LocalDateTime;
@@ -14,6 +18,8 @@ import java.time.ZoneId;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
@@ -26,19 +32,94 @@ public class JwtService {
     @Value("${spring.security.jwt.expiration}")
     private long jwtExpiration;
     
+    /**
+     * "session" : la connexion émet un token validé contre la table tokens à chaque requête (comportement historique).
+     * "stateless" : la connexion émet un access token court vérifié par signature et exp, et un refresh token en base.
+     * Le mode ne choisit que les tokens émis : les deux sortes sont acceptées quel que soit le mode,
+     * pour qu'un cluster en cours de migration reste utilisable.
+     */
+    @Value("${spring.security.jwt.mode:session}")
+    private String mode;
+    
+    @Value("${spring.security.jwt.access-token-expiration:900000}")
+    private long accessTokenExpiration;
+    
+    /**
+     * Attribut de requête contenant le {@link VerifiedToken} de la requête courante
+     */
+    public static final String VERIFIED_TOKEN_ATTRIBUTE = JwtService.class.getName() + ".VERIFIED_TOKEN";
+    
+    public static final String TOKEN_TYPE_CLAIM = "typ";
+    public static final String ACCESS_TOKEN_TYPE = "access";
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
+    
+    /**
+     * Claim de l'access token portant le jti du refresh token émis avec lui (même session)
+     */
+    public static final String SESSION_ID_CLAIM = "sid";
+    
     private final TokenService tokenService;
+    private final AccessTokenRevocationList revocationList;
+    
+    // Construits une seule fois au démarrage, thread-safe
+    private SecretKey signInKey;
+    private JwtParser jwtParser;
     
-    public JwtService(TokenService tokenService) {
+    public JwtService(TokenService tokenService, AccessTokenRevocationList revocationList) {
         this.tokenService = tokenService;
+        this.revocationList = revocationList;
+    }
+    
+    public boolean isStateless() {
+        return "stateless".equalsIgnoreCase(mode);
+    }
+    
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+    }
+    
+    /**
+     * Vérifie la signature du token et retourne ses claims.
+     * Dans une requête HTTP, le résultat est conservé en attribut de requête :
+     * le filtre, les services et les contrôleurs partagent une seule vérification.
+     */
+    public VerifiedToken verify(String token) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+                && attributes.getAttribute(VERIFIED_TOKEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof VerifiedToken verified
+                && verified.token().equals(token)) {
+            return verified;
+        }
+        
+        VerifiedToken verified = new VerifiedToken(token, extractAllClaims(token));
+        if (attributes != null) {
+            attributes.setAttribute(VERIFIED_TOKEN_ATTRIBUTE, verified, RequestAttributes.SCOPE_REQUEST);
+        }
+        return verified;
+    }
+    
+    /**
+     * Retourne le token déjà vérifié pour la requête courante, s'il existe
+     */
+    public Optional<VerifiedToken> currentVerifiedToken() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+                && attributes.getAttribute(VERIFIED_TOKEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof VerifiedToken verified) {
+            return Optional.of(verified);
+        }
+        return Optional.empty();
     }
     
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).subject();
     }
     
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(verify(token).claims());
     }
     
     public String generateToken(UserDetails userDetails) {
@@ -46,48 +127,115 @@ public class JwtService {
     }
     
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return buildToken(extraClaims, userDetails, jwtExpiration);
+        return buildToken(extraClaims, userDetails.getUsername(), jwtExpiration);
+    }
+    
+    /**
+     * Émet les tokens de connexion selon le mode configuré
+     */
+    public IssuedTokens issueTokens(UserDetails userDetails, String userAgent, String ipAddress) {
+        if (!isStateless()) {
+            return new IssuedTokens(generateAndSaveToken(userDetails, userAgent, ipAddress), null);
+        }
+        
+        String sessionId = UUID.randomUUID().toString();
+        String refreshToken = buildRefreshToken(userDetails.getUsername(), sessionId);
+        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(jwtExpiration / 1000);
+        saveSingleActiveToken(refreshToken, userDetails.getUsername(), expiresAt, userAgent, ipAddress);
+        
+        log.info("Access token et refresh token émis pour l'utilisateur: {}", userDetails.getUsername());
+        return new IssuedTokens(buildAccessToken(userDetails.getUsername(), sessionId), refreshToken);
+    }
+    
+    /**
+     * Échange un refresh token contre une nouvelle paire de tokens (rotation), quel que soit le mode du nœud.
+     * Un refresh token déjà utilisé révoque toute la session de l'utilisateur.
+     */
+    public IssuedTokens refresh(String refreshToken, String userAgent, String ipAddress) {
+        VerifiedToken verified = verify(refreshToken);
+        if (!REFRESH_TOKEN_TYPE.equals(verified.claims().get(TOKEN_TYPE_CLAIM, String.class)) || verified.isExpired()) {
+            throw new RuntimeException("Refresh token invalide");
+        }
+        
+        String userEmail = verified.subject();
+        String sessionId = UUID.randomUUID().toString();
+        String newRefreshToken = buildRefreshToken(userEmail, sessionId);
+        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(jwtExpiration / 1000);
+        tokenService.rotateRefreshToken(refreshToken, newRefreshToken, userEmail, expiresAt, userAgent, ipAddress);
+        
+        log.info("Refresh token renouvelé pour l'utilisateur: {}", userEmail);
+        return new IssuedTokens(buildAccessToken(userEmail, sessionId), newRefreshToken);
+    }
+    
+    /**
+     * Enregistre le token comme unique token actif de l'utilisateur.
+     * Les connexions concurrentes d'un même utilisateur sont sérialisées par {@link TokenService#saveToken} ;
+     * si l'index unique partiel rejette malgré tout l'insertion, on rejoue la transaction une fois.
+     */
+    private void saveSingleActiveToken(String token, String userEmail, LocalDateTime expiresAt, String userAgent, String ipAddress) {
+        try {
+            tokenService.saveToken(token, userEmail, expiresAt, userAgent, ipAddress);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Connexion concurrente détectée pour l'utilisateur: {}. Nouvelle tentative", userEmail);
+            tokenService.saveToken(token, userEmail, expiresAt, userAgent, ipAddress);
+        }
+    }
+    
+    private String buildAccessToken(String subject, String sessionId) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(TOKEN_TYPE_CLAIM, ACCESS_TOKEN_TYPE);
+        claims.put(Claims.ID, UUID.randomUUID().toString());
+        claims.put(SESSION_ID_CLAIM, sessionId);
+        return buildToken(claims, subject, accessTokenExpiration);
+    }
+    
+    // Le jti du refresh token identifie la session
+    private String buildRefreshToken(String subject, String sessionId) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(TOKEN_TYPE_CLAIM, REFRESH_TOKEN_TYPE);
+        claims.put(Claims.ID, sessionId);
+        return buildToken(claims, subject, jwtExpiration);
     }
     
     public String generateAndSaveToken(UserDetails userDetails, String userAgent, String ipAddress) {
-        String token = generateToken(userDetails);
+        // Identifiant unique : deux connexions dans la même seconde ne produisent pas le même token
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(Claims.ID, UUID.randomUUID().toString());
+        String token = generateToken(claims, userDetails);
         
         // Calculer la date d'expiration
         LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(jwtExpiration / 1000);
         
-        // Vérifier et nettoyer les tokens multiples avant de sauvegarder le nouveau
-        tokenService.ensureSingleActiveToken(userDetails.getUsername());
-        
         // Sauvegarder le nouveau token (les anciens seront automatiquement désactivés)
-        tokenService.saveToken(token, userDetails.getUsername(), expiresAt, userAgent, ipAddress);
+        saveSingleActiveToken(token, userDetails.getUsername(), expiresAt, userAgent, ipAddress);
         
         log.info("Token unique généré et sauvegardé pour l'utilisateur: {}", userDetails.getUsername());
         return token;
     }
     
-    private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration) {
+    private String buildToken(Map<String, Object> extraClaims, String subject, long expiration) {
         return Jwts.builder()
                 .setClaims(extraClaims)
-                .setSubject(userDetails.getUsername())
+                .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
     
     public boolean isTokenValid(String token, UserDetails userDetails) {
         try {
             // Vérifier d'abord la validité JWT
-            final String username = extractUsername(token);
-            boolean jwtValid = (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+            final VerifiedToken verified = verify(token);
+            boolean jwtValid = (verified.subject().equals(userDetails.getUsername())) && !verified.isExpired();
             
             if (!jwtValid) {
                 log.warn("Token JWT invalide pour l'utilisateur: {}", userDetails.getUsername());
                 return false;
             }
             
-            // Vérifier ensuite la validité en base de données
-            boolean dbValid = tokenService.isTokenValid(token);
+            // Vérifier ensuite la validité en base de données (ou la révocation en mode stateless)
+            boolean dbValid = isTokenActive(verified);
             
             if (!dbValid) {
                 log.warn("Token invalide en base de données pour l'utilisateur: {}", userDetails.getUsername());
@@ -106,13 +254,14 @@ public class JwtService {
     public boolean isTokenValid(String token) {
         try {
             // Vérifier d'abord la validité JWT
-            if (isTokenExpired(token)) {
+            final VerifiedToken verified = verify(token);
+            if (verified.isExpired()) {
                 log.warn("Token JWT expiré");
                 return false;
             }
             
-            // Vérifier ensuite la validité en base de données
-            return tokenService.isTokenValid(token);
+            // Vérifier ensuite la validité en base de données (ou la révocation en mode stateless)
+            return isTokenActive(verified);
             
         } catch (Exception e) {
             log.error("Erreur lors de la validation du token: {}", e.getMessage());
@@ -120,37 +269,71 @@ public class JwtService {
         }
     }
     
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Vérifie qu'un token déjà authentifié n'a pas été révoqué, selon son type et non selon le mode du nœud :
+     * un access token est contrôlé par la liste de révocation sans requête en base, un token de session
+     * (sans type) dans la table tokens. Un refresh token n'est jamais accepté comme jeton d'accès.
+     */
+    public boolean isTokenActive(VerifiedToken verified) {
+        String type = verified.claims().get(TOKEN_TYPE_CLAIM, String.class);
+        if (ACCESS_TOKEN_TYPE.equals(type)) {
+            return !revocationList.isRevoked(verified.claims().getId());
+        }
+        if (REFRESH_TOKEN_TYPE.equals(type)) {
+            return false;
+        }
+        return tokenService.isTokenValid(verified.token(), verified.expiration());
     }
     
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public Date extractExpiration(String token) {
+        return verify(token).claims().getExpiration();
     }
     
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSignInKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return jwtParser.parseClaimsJws(token).getBody();
         } catch (JwtException e) {
             log.error("Erreur lors du parsing du token JWT: {}", e.getMessage());
             throw e;
         }
     }
     
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = secretKey.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Révoque le token présenté à la déconnexion, selon son type.
+     * Pour un access token, seul le refresh token de la même session est révoqué en base (les autres appareils
+     * restent connectés) ; l'access token lui-même n'est ajouté qu'à la liste de révocation de ce nœud :
+     * les autres nœuds l'acceptent jusqu'à son expiration (access-token-expiration).
+     */
+    public void revokeToken(String token) {
+        Optional<Claims> claims = parse(token);
+        if (claims.isEmpty() || !ACCESS_TOKEN_TYPE.equals(claims.get().get(TOKEN_TYPE_CLAIM, String.class))) {
+            // Token de session ou refresh token : révocation en base
+            tokenService.revokeToken(token);
+            return;
+        }
+        
+        Claims accessClaims = claims.get();
+        revocationList.revoke(accessClaims.getId(), accessClaims.getExpiration().toInstant());
+        String sessionId = accessClaims.get(SESSION_ID_CLAIM, String.class);
+        if (sessionId == null) {
+            return;
+        }
+        tokenService.getValidTokensByUser(accessClaims.getSubject()).stream()
+                .filter(stored -> parse(stored.getTokenValue()).map(Claims::getId).filter(sessionId::equals).isPresent())
+                .forEach(stored -> tokenService.revokeToken(stored.getTokenValue()));
     }
     
     /**
-     * Révoque un token
+     * Claims d'un token signé, sans passer par le cache de la requête (qui ne contient que le token de l'appelant)
      */
-    public void revokeToken(String token) {
-        tokenService.revokeToken(token);
+    private Optional<Claims> parse(String token) {
+        try {
+            return Optional.of(jwtParser.parseClaimsJws(token).getBody());
+        } catch (ExpiredJwtException e) {
+            return Optional.of(e.getClaims());
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
     }
     
     /**
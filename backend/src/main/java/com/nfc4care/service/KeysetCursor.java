@@ -0,0 +1,50 @@
+package com.nfc4care.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Encodage opaque des curseurs de pagination keyset : les valeurs de la dernière ligne
+ * renvoyée, séparées puis encodées en Base64 URL.
+ */
+public final class KeysetCursor {
+    
+    private static final String SEPARATOR = "\u001F";
+    
+    private KeysetCursor() {
+    }
+    
+    public static String encode(String... values) {
+        String joined = String.join(SEPARATOR, values);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Décode un curseur en vérifiant son nombre de valeurs
+     */
+    public static String[] decode(String cursor, int expectedValues) {
+        try {
+            String joined = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] values = joined.split(SEPARATOR, -1);
+            if (values.length != expectedValues) {
+                throw new IllegalArgumentException("Curseur invalide");
+            }
+            return values;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Curseur invalide", e);
+        }
+    }
+    
+    /**
+     * Lit une date-heure décodée d'un curseur ; une valeur mal formée est un curseur invalide
+     */
+    public static LocalDateTime parseDateTime(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Curseur invalide", e);
+        }
+    }
+}
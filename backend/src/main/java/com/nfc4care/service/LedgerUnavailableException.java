@@ -0,0 +1,16 @@
+package com.nfc4care.service;
+
+/**
+ * Levée quand un appel au registre blockchain est refusé sans être tenté
+ * (circuit ouvert, trop d'appels en cours, quota atteint) ou dépasse son délai
+ */
+public class LedgerUnavailableException extends RuntimeException {
+    
+    public LedgerUnavailableException(String message) {
+        super(message);
+    }
+    
+    public LedgerUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
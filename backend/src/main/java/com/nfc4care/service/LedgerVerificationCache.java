@@ -0,0 +1,107 @@
+package com.nfc4care.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cache à deux niveaux des racines de Merkle lues sur le registre.
+ *
+ * Niveau 1 : cache mémoire borné. Niveau 2 : table {@code confirmed_transactions}.
+ * Une transaction confirmée est gardée sans expiration (ses métadonnées ne changent plus) ;
+ * une transaction introuvable (en attente de confirmation ou erreur réseau) n'est mise en cache
+ * que {@code pending-ttl} ms, puis le registre est interrogé à nouveau.
+ */
+@Component
+@Slf4j
+public class LedgerVerificationCache {
+    
+    private final AnchoringLedger ledger;
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, Lookup> memory;
+    private final Counter memoryHits;
+    private final Counter databaseHits;
+    private final Counter ledgerCalls;
+    
+    public LedgerVerificationCache(
+            AnchoringLedger ledger,
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${nfc4care.ledger-cache.maximum-size:100000}") long maximumSize,
+            @Value("${nfc4care.ledger-cache.pending-ttl:30000}") long pendingTtlMillis
+    ) {
+        this.ledger = ledger;
+        this.jdbcTemplate = jdbcTemplate;
+        long pendingTtlNanos = Duration.ofMillis(pendingTtlMillis).toNanos();
+        this.memory = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Lookup>() {
+                    @Override
+                    public long expireAfterCreate(String txHash, Lookup lookup, long currentTime) {
+                        return lookup.confirmed() ? Long.MAX_VALUE : pendingTtlNanos;
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(String txHash, Lookup lookup, long currentTime, long currentDuration) {
+                        return expireAfterCreate(txHash, lookup, currentTime);
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(String txHash, Lookup lookup, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        this.memoryHits = meterRegistry.counter("nfc4care.ledger.lookups", "source", "memory");
+        this.databaseHits = meterRegistry.counter("nfc4care.ledger.lookups", "source", "database");
+        this.ledgerCalls = meterRegistry.counter("nfc4care.ledger.lookups", "source", "ledger");
+    }
+    
+    /**
+     * Racine de Merkle ancrée par une transaction, si elle est confirmée
+     */
+    public Optional<String> anchoredRoot(String transactionHash) {
+        Lookup cached = memory.getIfPresent(transactionHash);
+        if (cached != null) {
+            memoryHits.increment();
+            return Optional.ofNullable(cached.merkleRoot());
+        }
+        
+        List<String> stored = jdbcTemplate.queryForList(
+                "SELECT merkle_root FROM confirmed_transactions WHERE tx_hash = ?", String.class, transactionHash);
+        if (!stored.isEmpty()) {
+            databaseHits.increment();
+            memory.put(transactionHash, new Lookup(stored.get(0), true));
+            return Optional.of(stored.get(0));
+        }
+        
+        ledgerCalls.increment();
+        Optional<String> root = ledger.anchoredRoot(transactionHash);
+        if (root.isPresent()) {
+            jdbcTemplate.update(
+                    "INSERT INTO confirmed_transactions (tx_hash, merkle_root, confirmed_at) VALUES (?, ?, ?) " +
+                    "ON CONFLICT (tx_hash) DO NOTHING",
+                    transactionHash, root.get(), Timestamp.valueOf(LocalDateTime.now()));
+            memory.put(transactionHash, new Lookup(root.get(), true));
+        } else {
+            log.debug("Transaction {} non confirmée, nouvel essai après expiration du cache", transactionHash);
+            memory.put(transactionHash, new Lookup(null, false));
+        }
+        return root;
+    }
+    
+    private record Lookup(String merkleRoot, boolean confirmed) {
+    }
+}
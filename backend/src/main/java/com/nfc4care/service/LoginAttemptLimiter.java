@@ -0,0 +1,177 @@
+package com.nfc4care.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Limiteur des échecs de connexion par email et par adresse IP, sans verrou.
+ *
+ * Chaque clé est hachée vers un emplacement d'une table de taille fixe : la mémoire utilisée
+ * ne dépend pas du nombre de clés distinctes (une collision ne peut que sur-limiter).
+ * Un emplacement tient dans un seul long mis à jour par CAS : numéro de fenêtre (24 bits),
+ * échecs de la fenêtre précédente (12 bits), échecs de la fenêtre courante (12 bits, plafonnés à 4095)
+ * et empreinte de la clé propriétaire (16 bits, 0 quand plusieurs clés ont échoué dans l'emplacement).
+ * L'estimation pondère la fenêtre précédente par la part qu'il en reste (fenêtre glissante approchée).
+ * Une connexion réussie n'efface l'emplacement que s'il ne contient que les échecs de son propre email :
+ * les échecs d'un autre email haché au même endroit ne sont jamais remis à zéro, ils expirent avec la fenêtre.
+ */
+@Component
+@Slf4j
+public class LoginAttemptLimiter {
+    
+    private static final int COUNT_BITS = 12;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final int OWNER_BITS = 16;
+    private static final long OWNER_MASK = (1L << OWNER_BITS) - 1;
+    private static final int WINDOW_SHIFT = 2 * COUNT_BITS + OWNER_BITS;
+    private static final long WINDOW_MASK = (1L << 24) - 1;
+    private static final long SHARED = 0;
+    
+    private final AtomicLongArray emailSlots;
+    private final AtomicLongArray ipSlots;
+    private final int slotMask;
+    private final long windowMillis;
+    private final int maxFailuresPerEmail;
+    private final int maxFailuresPerIp;
+    private final Counter rejectedCounter;
+    
+    public LoginAttemptLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${spring.security.login-throttling.slots:65536}") int slots,
+            @Value("${spring.security.login-throttling.window:300000}") long windowMillis,
+            @Value("${spring.security.login-throttling.max-failures-per-email:5}") int maxFailuresPerEmail,
+            @Value("${spring.security.login-throttling.max-failures-per-ip:50}") int maxFailuresPerIp
+    ) {
+        int size = Integer.highestOneBit(Math.max(slots, 2));
+        this.emailSlots = new AtomicLongArray(size);
+        this.ipSlots = new AtomicLongArray(size);
+        this.slotMask = size - 1;
+        this.windowMillis = windowMillis;
+        this.maxFailuresPerEmail = maxFailuresPerEmail;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.rejectedCounter = meterRegistry.counter("nfc4care.auth.throttled");
+    }
+    
+    /**
+     * Rejette la tentative si l'email ou l'adresse IP a dépassé sa limite d'échecs
+     */
+    public void checkAllowed(String email, String ipAddress) {
+        long now = System.currentTimeMillis();
+        if (estimate(emailSlots, normalize(email), now) >= maxFailuresPerEmail
+                || estimate(ipSlots, ipAddress, now) >= maxFailuresPerIp) {
+            rejectedCounter.increment();
+            log.warn("Connexion limitée pour l'utilisateur: {} depuis {}", email, ipAddress);
+            throw new LoginThrottledException(Math.max(1, (windowMillis - now % windowMillis) / 1000));
+        }
+    }
+    
+    public void recordFailure(String email, String ipAddress) {
+        long now = System.currentTimeMillis();
+        increment(emailSlots, normalize(email), now);
+        increment(ipSlots, ipAddress, now);
+    }
+    
+    /**
+     * Remet à zéro le compteur de l'email après une connexion réussie,
+     * si l'emplacement ne contient que les échecs de cet email
+     */
+    public void recordSuccess(String email) {
+        String key = normalize(email);
+        if (key == null) {
+            return;
+        }
+        int index = slot(key);
+        long state;
+        do {
+            state = emailSlots.get(index);
+            if (owner(state) != fingerprint(key)) {
+                return;
+            }
+        } while (!emailSlots.compareAndSet(index, state, 0L));
+    }
+    
+    private double estimate(AtomicLongArray slots, String key, long now) {
+        if (key == null) {
+            return 0;
+        }
+        long state = roll(slots.get(slot(key)), now / windowMillis);
+        double previousWeight = 1.0 - (double) (now % windowMillis) / windowMillis;
+        return current(state) + previous(state) * previousWeight;
+    }
+    
+    private void increment(AtomicLongArray slots, String key, long now) {
+        if (key == null) {
+            return;
+        }
+        int index = slot(key);
+        long window = now / windowMillis;
+        long state;
+        long updated;
+        long fingerprint = fingerprint(key);
+        do {
+            state = slots.get(index);
+            long rolled = roll(state, window);
+            long count = Math.min(current(rolled) + 1, COUNT_MASK);
+            // Premier échec de l'emplacement : il appartient à cette clé ; échec d'une autre clé : il devient partagé
+            boolean empty = current(rolled) == 0 && previous(rolled) == 0;
+            long owner = empty || owner(rolled) == fingerprint ? fingerprint : SHARED;
+            updated = pack(window, previous(rolled), count, owner);
+        } while (!slots.compareAndSet(index, state, updated));
+    }
+    
+    /**
+     * Ramène l'état à la fenêtre donnée : la fenêtre courante devient la précédente, ou tout est oublié
+     */
+    private static long roll(long state, long window) {
+        long elapsed = (window - (state >>> WINDOW_SHIFT)) & WINDOW_MASK;
+        if (elapsed == 0) {
+            return state;
+        }
+        if (elapsed == 1) {
+            return pack(window, current(state), 0, owner(state));
+        }
+        return pack(window, 0, 0, SHARED);
+    }
+    
+    private static long pack(long window, long previous, long current, long owner) {
+        return ((window & WINDOW_MASK) << WINDOW_SHIFT) | (previous << (COUNT_BITS + OWNER_BITS))
+                | (current << OWNER_BITS) | owner;
+    }
+    
+    private static long previous(long state) {
+        return (state >>> (COUNT_BITS + OWNER_BITS)) & COUNT_MASK;
+    }
+    
+    private static long current(long state) {
+        return (state >>> OWNER_BITS) & COUNT_MASK;
+    }
+    
+    private static long owner(long state) {
+        return state & OWNER_MASK;
+    }
+    
+    // Hachage 64 bits distinct de hashCode() : deux clés du même emplacement ont presque toujours des empreintes différentes
+    private static long fingerprint(String key) {
+        long h = 1125899906842597L;
+        for (int i = 0; i < key.length(); i++) {
+            h = 31 * h + key.charAt(i);
+        }
+        h *= 0xC2B2AE3D27D4EB4FL;
+        return Math.max(1, (h >>> 48) & OWNER_MASK);
+    }
+    
+    private int slot(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & slotMask;
+    }
+    
+    private static String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,18 @@
+package com.nfc4care.service;
+
+/**
+ * Levée quand trop de tentatives de connexion ont échoué pour un email ou une adresse IP
+ */
+public class LoginThrottledException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public LoginThrottledException(long retryAfterSeconds) {
+        super("Trop de tentatives de connexion, veuillez réessayer plus tard");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
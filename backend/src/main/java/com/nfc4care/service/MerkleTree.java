@@ -0,0 +1,116 @@
+package com.nfc4care.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Arbre de Merkle SHA-256 utilisé pour l'ancrage groupé des empreintes.
+ *
+ * Feuille = SHA-256(0x00 || UTF-8(valeur)), nœud = SHA-256(0x01 || gauche || droite) : les préfixes
+ * distinguent feuilles et nœuds internes. Un nœud sans frère remonte tel quel au niveau supérieur.
+ * Une preuve d'inclusion est la suite des frères de la feuille jusqu'à la racine, chacun préfixé
+ * de son côté ({@code l} ou {@code r}) et séparés par des points ; elle est vide pour un arbre à une feuille.
+ */
+public final class MerkleTree {
+    
+    private static final byte LEAF = 0x00;
+    private static final byte NODE = 0x01;
+    private static final String STEP_SEPARATOR = ".";
+    
+    private MerkleTree() {
+    }
+    
+    /**
+     * Racine et preuve d'inclusion de chaque feuille, dans l'ordre des valeurs
+     */
+    public record Result(String root, List<String> proofs) {
+    }
+    
+    public static Result build(List<String> values) {
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("Arbre de Merkle vide");
+        }
+        MessageDigest digest = sha256();
+        
+        List<byte[][]> levels = new ArrayList<>();
+        byte[][] level = new byte[values.size()][];
+        for (int i = 0; i < level.length; i++) {
+            level[i] = leaf(digest, values.get(i));
+        }
+        levels.add(level);
+        while (level.length > 1) {
+            byte[][] parents = new byte[(level.length + 1) / 2][];
+            for (int i = 0; i < parents.length; i++) {
+                int left = 2 * i;
+                parents[i] = left + 1 < level.length ? node(digest, level[left], level[left + 1]) : level[left];
+            }
+            level = parents;
+            levels.add(level);
+        }
+        
+        List<String> proofs = new ArrayList<>(values.size());
+        for (int leaf = 0; leaf < values.size(); leaf++) {
+            StringBuilder proof = new StringBuilder();
+            int index = leaf;
+            for (int depth = 0; depth < levels.size() - 1; depth++) {
+                byte[][] nodes = levels.get(depth);
+                int sibling = index ^ 1;
+                if (sibling < nodes.length) {
+                    if (proof.length() > 0) {
+                        proof.append(STEP_SEPARATOR);
+                    }
+                    proof.append(sibling < index ? 'l' : 'r').append(RecordHasher.toHex(nodes[sibling]));
+                }
+                index >>= 1;
+            }
+            proofs.add(proof.toString());
+        }
+        return new Result(RecordHasher.toHex(level[0]), proofs);
+    }
+    
+    /**
+     * Recalcule la racine à partir d'une feuille et de sa preuve d'inclusion
+     */
+    public static String rootFromProof(String value, String proof) {
+        MessageDigest digest = sha256();
+        byte[] current = leaf(digest, value);
+        if (proof != null && !proof.isEmpty()) {
+            HexFormat hex = HexFormat.of();
+            for (String step : proof.split("\\.")) {
+                if (step.length() < 2) {
+                    throw new IllegalArgumentException("Preuve de Merkle invalide");
+                }
+                byte[] sibling = hex.parseHex(step, 1, step.length());
+                current = switch (step.charAt(0)) {
+                    case 'l' -> node(digest, sibling, current);
+                    case 'r' -> node(digest, current, sibling);
+                    default -> throw new IllegalArgumentException("Preuve de Merkle invalide");
+                };
+            }
+        }
+        return RecordHasher.toHex(current);
+    }
+    
+    private static byte[] leaf(MessageDigest digest, String value) {
+        digest.update(LEAF);
+        return digest.digest(value.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static byte[] node(MessageDigest digest, byte[] left, byte[] right) {
+        digest.update(NODE);
+        digest.update(left);
+        return digest.digest(right);
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
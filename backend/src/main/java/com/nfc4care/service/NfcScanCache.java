@@ -0,0 +1,160 @@
+package com.nfc4care.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nfc4care.dto.PatientDetail;
+import com.nfc4care.entity.Patient;
+import com.nfc4care.repository.PatientRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Résolution des scans NFC : table numéro NFC → id patient préchargée au démarrage,
+ * et réponses JSON déjà sérialisées par patient.
+ *
+ * Les réponses expirent après {@code ttl} : à l'expiration, le patient est relu en base
+ * et la correspondance est vérifiée, ce qui borne le retard vis-à-vis des écritures d'un autre nœud.
+ * Une correspondance n'est utilisée sans relecture que tant que la réponse de son patient est en cache.
+ */
+@Component
+@Slf4j
+public class NfcScanCache {
+    
+    private final PatientRepository patientRepository;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Long> patientIdsByNfc = new ConcurrentHashMap<>();
+    private final Cache<Long, byte[]> responses;
+    private final Timer hitTimer;
+    private final Timer missTimer;
+    private final Timer notFoundTimer;
+    
+    public NfcScanCache(
+            PatientRepository patientRepository,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${nfc4care.nfc-scan.maximum-size:10000}") long maximumSize,
+            @Value("${nfc4care.nfc-scan.ttl:300000}") long ttlMillis
+    ) {
+        this.patientRepository = patientRepository;
+        this.objectMapper = objectMapper;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .build();
+        this.hitTimer = scanTimer(meterRegistry, "hit");
+        this.missTimer = scanTimer(meterRegistry, "miss");
+        this.notFoundTimer = scanTimer(meterRegistry, "not_found");
+        meterRegistry.gaugeMapSize("nfc4care.nfc.scan.mappings", List.of(), patientIdsByNfc);
+    }
+    
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        for (Object[] mapping : patientRepository.findActiveNfcMappings()) {
+            patientIdsByNfc.put((String) mapping[0], (Long) mapping[1]);
+        }
+        log.info("Cache NFC préchargé: {} cartes en {} ms", patientIdsByNfc.size(), System.currentTimeMillis() - start);
+    }
+    
+    /**
+     * Retourne la réponse JSON du patient associé à la carte, ou vide si la carte est inconnue ou le patient inactif
+     */
+    public Optional<byte[]> resolve(String numeroNFC) {
+        long start = System.nanoTime();
+        Timer outcome = hitTimer;
+        try {
+            Long patientId = patientIdsByNfc.get(numeroNFC);
+            byte[] response = patientId != null ? responses.getIfPresent(patientId) : null;
+            if (response != null) {
+                return Optional.of(response);
+            }
+            
+            outcome = missTimer;
+            Optional<Patient> patient = load(numeroNFC, patientId);
+            if (patient.isEmpty()) {
+                outcome = notFoundTimer;
+                return Optional.empty();
+            }
+            return Optional.of(put(patient.get()));
+        } finally {
+            outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    /**
+     * Id du patient actif associé à la carte. La correspondance est vérifiée en base
+     * (carte toujours attribuée à ce patient, patient actif) dès que la réponse du patient a expiré.
+     */
+    public Optional<Long> patientIdFor(String numeroNFC) {
+        Long patientId = patientIdsByNfc.get(numeroNFC);
+        if (patientId != null && responses.getIfPresent(patientId) != null) {
+            return Optional.of(patientId);
+        }
+        Optional<Patient> patient = load(numeroNFC, patientId);
+        patient.ifPresent(this::put);
+        return patient.map(Patient::getId);
+    }
+    
+    /**
+     * Met à jour la correspondance et la réponse après l'écriture d'un patient
+     */
+    public void refresh(Patient patient) {
+        patientIdsByNfc.values().remove(patient.getId());
+        responses.invalidate(patient.getId());
+        if (patient.isActif() && patient.getNumeroNFC() != null) {
+            put(patient);
+        }
+    }
+    
+    /**
+     * Relit le patient actif associé à la carte ; une correspondance qui ne tient plus est remplacée ou retirée
+     */
+    private Optional<Patient> load(String numeroNFC, Long patientId) {
+        Optional<Patient> patient = patientId != null
+                ? patientRepository.findById(patientId).filter(p -> numeroNFC.equals(p.getNumeroNFC()) && p.isActif())
+                : Optional.empty();
+        if (patient.isEmpty()) {
+            // Carte jamais vue, réattribuée ou patient désactivé
+            patient = patientRepository.findByNumeroNFC(numeroNFC).filter(Patient::isActif);
+        }
+        if (patient.isEmpty()) {
+            patientIdsByNfc.remove(numeroNFC);
+        }
+        return patient;
+    }
+    
+    private static Timer scanTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("nfc4care.nfc.scan")
+                .description("Latence de résolution d'un scan NFC")
+                .tag("result", result)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+    
+    private byte[] put(Patient patient) {
+        try {
+            byte[] response = objectMapper.writeValueAsBytes(PatientDetail.of(patient));
+            patientIdsByNfc.put(patient.getNumeroNFC(), patient.getId());
+            responses.put(patient.getId(), response);
+            return response;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation du patient impossible", e);
+        }
+    }
+}
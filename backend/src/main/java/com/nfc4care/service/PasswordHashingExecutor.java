@@ -0,0 +1,109 @@
+package com.nfc4care.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pool dédié à la vérification des mots de passe (BCrypt), dimensionné sur le nombre de cœurs
+ * avec une file bornée. Une rafale de connexions ne peut donc pas occuper tous les threads Tomcat :
+ * au-delà de la file, la connexion est rejetée immédiatement.
+ */
+@Component
+@Slf4j
+public class PasswordHashingExecutor {
+    
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final Timer waitTimer;
+    private final Timer hashTimer;
+    private final Counter rejectedCounter;
+    
+    public PasswordHashingExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${spring.security.password-hashing.threads:0}") int threads,
+            @Value("${spring.security.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${spring.security.password-hashing.retry-after:2}") long retryAfterSeconds
+    ) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.retryAfterSeconds = retryAfterSeconds;
+        
+        Gauge.builder("nfc4care.auth.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("nfc4care.auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        this.waitTimer = meterRegistry.timer("nfc4care.auth.hashing.wait");
+        this.hashTimer = meterRegistry.timer("nfc4care.auth.hashing.duration");
+        this.rejectedCounter = meterRegistry.counter("nfc4care.auth.hashing.rejected");
+        
+        log.info("Pool de vérification des mots de passe: {} threads, file de {}", poolSize, queueCapacity);
+    }
+    
+    /**
+     * Exécute la vérification sur le pool dédié et attend son résultat.
+     * Les exceptions d'authentification sont propagées telles quelles.
+     */
+    public <T> T execute(Supplier<T> verification) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return verification.get();
+                } finally {
+                    hashTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Pool de vérification des mots de passe saturé, connexion rejetée");
+            throw new PasswordHashingSaturatedException(retryAfterSeconds);
+        }
+        
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Vérification du mot de passe interrompue", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Erreur lors de la vérification du mot de passe", e.getCause());
+        }
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
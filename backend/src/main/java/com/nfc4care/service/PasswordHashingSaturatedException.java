@@ -0,0 +1,19 @@
+package com.nfc4care.service;
+
+/**
+ * Levée quand le pool de vérification des mots de passe est saturé :
+ * la connexion est refusée immédiatement plutôt que mise en attente
+ */
+public class PasswordHashingSaturatedException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public PasswordHashingSaturatedException(long retryAfterSeconds) {
+        super("Trop de connexions en cours, veuillez réessayer");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,8 @@
+package com.nfc4care.service;
+
+/**
+ * Publié après toute écriture touchant les données d'un patient (fiche, consultations),
+ * pour invalider les vues mises en cache
+ */
+public record PatientRecordChangedEvent(Long patientId) {
+}
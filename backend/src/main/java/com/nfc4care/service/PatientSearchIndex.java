@@ -0,0 +1,345 @@
+package com.nfc4care.service;
+
+import com.nfc4care.dto.PatientSearchRow;
+import com.nfc4care.entity.Patient;
+import com.nfc4care.repository.PatientRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Index trigramme en mémoire pour la recherche de patients (nom, prénom, numéro de dossier, téléphone, email).
+ *
+ * Chaque trigramme pointe vers une liste triée d'ids (tableau d'int). Une recherche intersecte
+ * les listes des trigrammes du terme, vérifie les candidats par une vraie recherche de sous-chaîne,
+ * puis garde les K meilleurs. L'index est construit au démarrage par un parcours en flux
+ * et maintenu par {@link PatientService} à chaque création, modification ou suppression.
+ */
+@Component
+@Slf4j
+public class PatientSearchIndex {
+
+    // Ordre des champs et poids pour le classement
+    private static final int NOM = 0, PRENOM = 1, NUMERO_DOSSIER = 2, TELEPHONE = 3, EMAIL = 4;
+    private static final int[] FIELD_WEIGHTS = {5, 4, 3, 2, 2};
+
+    private final PatientRepository patientRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<Integer, String[]> documents = new HashMap<>();
+    private final Set<Integer> updatedDuringBuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    public PatientSearchIndex(PatientRepository patientRepository,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.patientRepository = patientRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        meterRegistry.gauge("nfc4care.patients.search.index.documents", this, index -> index.read(index.documents::size));
+        meterRegistry.gauge("nfc4care.patients.search.index.trigrams", this, index -> index.read(index.postings::size));
+        meterRegistry.gauge("nfc4care.patients.search.index.bytes", this, PatientSearchIndex::estimatedBytes);
+    }
+
+    /**
+     * Construit l'index à partir d'un parcours en flux des patients actifs
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.currentTimeMillis();
+        updatedDuringBuild.clear();
+
+        Integer count = readOnlyTransaction.execute(status -> {
+            int indexed = 0;
+            try (Stream<PatientSearchRow> rows = patientRepository.streamActiveForSearch()) {
+                for (PatientSearchRow row : (Iterable<PatientSearchRow>) rows::iterator) {
+                    int id = toIntId(row.id());
+                    // Une écriture concurrente a déjà indexé une version plus récente
+                    if (!updatedDuringBuild.contains(id)) {
+                        put(id, fieldsOf(row.nom(), row.prenom(), row.numeroDossier(), row.telephone(), row.email()));
+                        indexed++;
+                    }
+                }
+            }
+            return indexed;
+        });
+
+        ready = true;
+        log.info("Index de recherche patients construit: {} patients en {} ms, ~{} Ko",
+                count, System.currentTimeMillis() - start, estimatedBytes() / 1024);
+    }
+
+    /**
+     * Indexe (ou réindexe) un patient ; un patient inactif est retiré de l'index
+     */
+    public void index(Patient patient) {
+        int id = toIntId(patient.getId());
+        updatedDuringBuild.add(id);
+        if (!patient.isActif()) {
+            remove(patient.getId());
+            return;
+        }
+        put(id, fieldsOf(patient.getNom(), patient.getPrenom(), patient.getNumeroDossier(),
+                patient.getTelephone(), patient.getEmail()));
+    }
+
+    public void remove(Long patientId) {
+        int id = toIntId(patientId);
+        updatedDuringBuild.add(id);
+        lock.writeLock().lock();
+        try {
+            String[] previous = documents.remove(id);
+            if (previous != null) {
+                unlinkPostings(id, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retourne les ids des {@code limit} meilleurs patients actifs correspondant au terme,
+     * ou vide si l'index n'est pas encore construit
+     */
+    public Optional<List<Long>> search(String term, int limit) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        String query = normalize(term);
+        if (query.isEmpty()) {
+            return Optional.of(List.of());
+        }
+
+        PriorityQueue<int[]> best = new PriorityQueue<>(Comparator.<int[]>comparingInt(hit -> hit[1])
+                .thenComparing(hit -> -hit[0]));
+
+        lock.readLock().lock();
+        try {
+            if (query.length() < 3) {
+                // Terme trop court pour les trigrammes : parcours des documents en mémoire
+                for (Map.Entry<Integer, String[]> entry : documents.entrySet()) {
+                    offer(best, entry.getKey(), entry.getValue(), query, limit);
+                }
+            } else {
+                for (int id : candidates(query)) {
+                    offer(best, id, documents.get(id), query, limit);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Long> ids = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ids.add((long) best.poll()[0]);
+        }
+        // La file est un tas minimum : inverser pour obtenir le meilleur score en premier
+        Collections.reverse(ids);
+        return Optional.of(ids);
+    }
+
+    private void offer(PriorityQueue<int[]> best, int id, String[] fields, String query, int limit) {
+        int score = score(fields, query);
+        if (score == 0) {
+            return;
+        }
+        best.offer(new int[]{id, score});
+        if (best.size() > limit) {
+            best.poll();
+        }
+    }
+
+    /**
+     * Score : pour chaque champ, égalité (3) > préfixe (2) > sous-chaîne (1), pondéré par le champ
+     */
+    private static int score(String[] fields, String query) {
+        int score = 0;
+        for (int f = 0; f < fields.length; f++) {
+            String field = fields[f];
+            if (field == null) {
+                continue;
+            }
+            int match = field.equals(query) ? 3 : field.startsWith(query) ? 2 : field.contains(query) ? 1 : 0;
+            score = Math.max(score, match * FIELD_WEIGHTS[f]);
+        }
+        return score;
+    }
+
+    /**
+     * Intersection des listes de tous les trigrammes du terme, en partant de la plus courte
+     */
+    private int[] candidates(String query) {
+        long[] keys = trigrams(query);
+        Postings[] lists = new Postings[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            lists[i] = postings.get(keys[i]);
+            if (lists[i] == null) {
+                return new int[0];
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+        int[] result = Arrays.copyOf(lists[0].ids, lists[0].size);
+        int size = result.length;
+        for (int i = 1; i < lists.length && size > 0; i++) {
+            int kept = 0;
+            for (int j = 0; j < size; j++) {
+                if (lists[i].contains(result[j])) {
+                    result[kept++] = result[j];
+                }
+            }
+            size = kept;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private void put(int id, String[] fields) {
+        lock.writeLock().lock();
+        try {
+            String[] previous = documents.put(id, fields);
+            if (previous != null) {
+                unlinkPostings(id, previous);
+            }
+            for (String field : fields) {
+                if (field != null) {
+                    for (long key : trigrams(field)) {
+                        postings.computeIfAbsent(key, k -> new Postings()).add(id);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void unlinkPostings(int id, String[] fields) {
+        for (String field : fields) {
+            if (field != null) {
+                for (long key : trigrams(field)) {
+                    Postings list = postings.get(key);
+                    if (list != null && list.remove(id) && list.size == 0) {
+                        postings.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private static long[] trigrams(String text) {
+        if (text.length() < 3) {
+            return new long[0];
+        }
+        long[] keys = new long[text.length() - 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        return keys;
+    }
+
+    private static String[] fieldsOf(String nom, String prenom, String numeroDossier, String telephone, String email) {
+        String[] fields = new String[5];
+        fields[NOM] = normalize(nom);
+        fields[PRENOM] = normalize(prenom);
+        fields[NUMERO_DOSSIER] = normalize(numeroDossier);
+        fields[TELEPHONE] = normalize(telephone);
+        fields[EMAIL] = normalize(email);
+        return fields;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static int toIntId(Long id) {
+        return Math.toIntExact(id);
+    }
+
+    private <T> T read(Supplier<T> supplier) {
+        lock.readLock().lock();
+        try {
+            return supplier.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Estimation de l'empreinte mémoire : tableaux d'ids, clés et chaînes indexées
+     */
+    private double estimatedBytes() {
+        return read(() -> {
+            long bytes = 0;
+            for (Postings list : postings.values()) {
+                bytes += 16L + 4L * list.ids.length + 48; // tableau + entrée de map et clé
+            }
+            for (String[] fields : documents.values()) {
+                bytes += 32 + 48;
+                for (String field : fields) {
+                    bytes += field == null ? 0 : 40 + field.length();
+                }
+            }
+            return (double) bytes;
+        });
+    }
+
+    /**
+     * Liste triée d'ids sous forme de tableau d'int extensible
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            int insertAt = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
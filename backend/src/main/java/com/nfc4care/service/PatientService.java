@@ -1,14 +1,25 @@
 package com.nfc4care.service;
 
+import com.nfc4care.dto.CursorPage;
+import com.nfc4care.dto.PatientDetail;
 import com.nfc4care.dto.PatientDto;
+import com.nfc4care.dto.PatientSummary;
 import com.nfc4care.entity.Patient;
 import com.nfc4care.repository.PatientRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -16,21 +27,130 @@ import java.util.Optional;
 public class PatientService {
     
     private final PatientRepository patientRepository;
+    private final PatientSearchIndex patientSearchIndex;
+    private final NfcScanCache nfcScanCache;
+    private final ApplicationEventPublisher eventPublisher;
     
-    public List<Patient> getAllPatients() {
-        return patientRepository.findAll();
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    
+    /**
+     * Ordres de tri disponibles pour la liste paginée, chacun terminé par l'id pour rester stable
+     */
+    public enum PatientSort {
+        ID, NOM, DATE_CREATION
     }
     
-    public Optional<Patient> getPatientById(Long id) {
-        return patientRepository.findById(id);
+    /**
+     * Liste paginée par curseur (keyset) : le coût d'une page ne dépend pas de sa profondeur
+     */
+    public CursorPage<PatientSummary> getPatients(String cursor, int limit, Boolean actif, PatientSort sort) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        
+        Specification<Patient> spec = Specification.where(null);
+        if (actif != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("actif"), actif));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(afterCursor(cursor, sort));
+        }
+        
+        List<Patient> rows = patientRepository.findBy(spec, q -> q.sortBy(sortOf(sort)).limit(pageSize + 1).all());
+        
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextCursor = cursorOf(rows.get(pageSize - 1), sort);
+        }
+        return new CursorPage<>(rows.stream().map(PatientSummary::of).toList(), nextCursor, pageSize);
+    }
+    
+    private Sort sortOf(PatientSort sort) {
+        return switch (sort) {
+            case ID -> Sort.by("id");
+            case NOM -> Sort.by("nom", "prenom", "id");
+            case DATE_CREATION -> Sort.by(Sort.Direction.DESC, "dateCreation", "id");
+        };
+    }
+    
+    private String cursorOf(Patient patient, PatientSort sort) {
+        String id = patient.getId().toString();
+        return switch (sort) {
+            case ID -> KeysetCursor.encode(sort.name(), id);
+            case NOM -> KeysetCursor.encode(sort.name(), patient.getNom(), patient.getPrenom(), id);
+            case DATE_CREATION -> KeysetCursor.encode(sort.name(), patient.getDateCreation().toString(), id);
+        };
+    }
+    
+    private Specification<Patient> afterCursor(String cursor, PatientSort sort) {
+        return switch (sort) {
+            case ID -> {
+                String[] values = decodeCursor(cursor, sort, 2);
+                Long id = Long.valueOf(values[1]);
+                yield (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+            }
+            case NOM -> {
+                String[] values = decodeCursor(cursor, sort, 4);
+                String nom = values[1];
+                String prenom = values[2];
+                Long id = Long.valueOf(values[3]);
+                yield (root, query, cb) -> cb.or(
+                        cb.greaterThan(root.get("nom"), nom),
+                        cb.and(cb.equal(root.get("nom"), nom), cb.or(
+                                cb.greaterThan(root.get("prenom"), prenom),
+                                cb.and(cb.equal(root.get("prenom"), prenom), cb.greaterThan(root.get("id"), id))
+                        ))
+                );
+            }
+            case DATE_CREATION -> {
+                String[] values = decodeCursor(cursor, sort, 3);
+                LocalDateTime dateCreation = KeysetCursor.parseDateTime(values[1]);
+                Long id = Long.valueOf(values[2]);
+                yield (root, query, cb) -> cb.or(
+                        cb.lessThan(root.get("dateCreation"), dateCreation),
+                        cb.and(cb.equal(root.get("dateCreation"), dateCreation), cb.lessThan(root.get("id"), id))
+                );
+            }
+        };
+    }
+    
+    private String[] decodeCursor(String cursor, PatientSort sort, int expectedValues) {
+        String[] values = KeysetCursor.decode(cursor, expectedValues);
+        if (!sort.name().equals(values[0])) {
+            throw new IllegalArgumentException("Curseur incompatible avec le tri demandé");
+        }
+        return values;
+    }
+    
+    public Optional<PatientDetail> getPatientById(Long id) {
+        return patientRepository.findById(id).map(PatientDetail::of);
     }
     
     public Optional<Patient> getPatientByNFC(String numeroNFC) {
         return patientRepository.findByNumeroNFC(numeroNFC);
     }
     
-    public List<Patient> searchPatients(String searchTerm) {
-        return patientRepository.searchPatients(searchTerm);
+    /**
+     * Réponse JSON pré-construite pour un scan NFC (patients actifs uniquement)
+     */
+    public Optional<byte[]> resolveNfcScan(String numeroNFC) {
+        return nfcScanCache.resolve(numeroNFC);
+    }
+    
+    /**
+     * Recherche via l'index trigramme en mémoire, limitée aux {@code limit} meilleurs résultats.
+     * Tant que l'index n'est pas construit, la recherche passe par la base de données.
+     */
+    public List<PatientSummary> searchPatients(String searchTerm, int limit) {
+        Optional<List<Long>> rankedIds = patientSearchIndex.search(searchTerm, limit);
+        if (rankedIds.isEmpty()) {
+            return patientRepository.searchPatients(searchTerm).stream().limit(limit).map(PatientSummary::of).toList();
+        }
+        
+        List<Long> ids = rankedIds.get();
+        Map<Long, Patient> byId = patientRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Patient::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).map(PatientSummary::of).toList();
     }
     
     public Patient createPatient(PatientDto patientDto) {
@@ -48,7 +168,11 @@ public class PatientService {
         patient.setNumeroNFC(patientDto.getNumeroNFC());
         patient.setActif(true);
         
-        return patientRepository.save(patient);
+        Patient savedPatient = patientRepository.save(patient);
+        patientSearchIndex.index(savedPatient);
+        nfcScanCache.refresh(savedPatient);
+        eventPublisher.publishEvent(new PatientRecordChangedEvent(savedPatient.getId()));
+        return savedPatient;
     }
     
     public Patient updatePatient(Long id, PatientDto patientDto) {
@@ -64,13 +188,20 @@ public class PatientService {
         patient.setEmail(patientDto.getEmail());
         patient.setGroupeSanguin(patientDto.getGroupeSanguin());
         
-        return patientRepository.save(patient);
+        Patient savedPatient = patientRepository.save(patient);
+        patientSearchIndex.index(savedPatient);
+        nfcScanCache.refresh(savedPatient);
+        eventPublisher.publishEvent(new PatientRecordChangedEvent(savedPatient.getId()));
+        return savedPatient;
     }
     
     public void deletePatient(Long id) {
         Patient patient = patientRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Patient non trouvé"));
         patient.setActif(false);
-        patientRepository.save(patient);
+        Patient savedPatient = patientRepository.save(patient);
+        patientSearchIndex.remove(id);
+        nfcScanCache.refresh(savedPatient);
+        eventPublisher.publishEvent(new PatientRecordChangedEvent(savedPatient.getId()));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,136 @@
+package com.nfc4care.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nfc4care.dto.ConsultationSummary;
+import com.nfc4care.dto.DossierHighlights;
+import com.nfc4care.dto.PatientDetail;
+import com.nfc4care.dto.PatientScanSummary;
+import com.nfc4care.entity.Patient;
+import com.nfc4care.repository.ConsultationRepository;
+import com.nfc4care.repository.DossierMedicalRepository;
+import com.nfc4care.repository.PatientRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Écran patient après un scan NFC : identité, allergies et traitements en cours, dernières consultations,
+ * en une seule réponse JSON déjà sérialisée.
+ *
+ * Une réponse est construite en trois requêtes au plus (patient, points clés du dossier, dernières consultations
+ * par l'index de chronologie), puis mise en cache. Elle est invalidée par {@link PatientRecordChangedEvent}
+ * après la validation de l'écriture ; le {@code ttl} borne le retard vis-à-vis des écritures d'un autre nœud.
+ */
+@Component
+public class PatientSummaryService {
+
+    private final PatientRepository patientRepository;
+    private final DossierMedicalRepository dossierMedicalRepository;
+    private final ConsultationRepository consultationRepository;
+    private final NfcScanCache nfcScanCache;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Cache<Long, byte[]> summaries;
+    private final int consultations;
+    private final Timer hitTimer;
+    private final Timer missTimer;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public PatientSummaryService(
+            PatientRepository patientRepository,
+            DossierMedicalRepository dossierMedicalRepository,
+            ConsultationRepository consultationRepository,
+            NfcScanCache nfcScanCache,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${nfc4care.patient-summary.consultations:5}") int consultations,
+            @Value("${nfc4care.patient-summary.maximum-size:10000}") long maximumSize,
+            @Value("${nfc4care.patient-summary.ttl:300000}") long ttlMillis
+    ) {
+        this.patientRepository = patientRepository;
+        this.dossierMedicalRepository = dossierMedicalRepository;
+        this.consultationRepository = consultationRepository;
+        this.nfcScanCache = nfcScanCache;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.consultations = consultations;
+        this.summaries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .build();
+        this.hitTimer = summaryTimer(meterRegistry, "hit");
+        this.missTimer = summaryTimer(meterRegistry, "miss");
+    }
+
+    public Optional<byte[]> getSummary(Long patientId) {
+        long start = System.nanoTime();
+        byte[] cached = summaries.getIfPresent(patientId);
+        if (cached != null) {
+            hitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.of(cached);
+        }
+
+        // Les trois lectures partagent une transaction : une seule connexion et un instantané cohérent
+        long generation = invalidations.get();
+        Optional<byte[]> summary = Objects.requireNonNull(readOnlyTransaction.execute(status ->
+                patientRepository.findById(patientId).map(this::build)));
+        // Une invalidation pendant la construction peut concerner ce patient : la réponse n'est pas mise en cache
+        if (summary.isPresent() && invalidations.get() == generation) {
+            summaries.put(patientId, summary.get());
+        }
+        missTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return summary;
+    }
+
+    /**
+     * Résumé du patient actif associé à la carte
+     */
+    public Optional<byte[]> getSummaryByNfc(String numeroNFC) {
+        return nfcScanCache.patientIdFor(numeroNFC).flatMap(this::getSummary);
+    }
+
+    // Après validation : une lecture concurrente ne peut pas remettre en cache l'état antérieur à l'écriture
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientRecordChanged(PatientRecordChangedEvent event) {
+        invalidations.incrementAndGet();
+        summaries.invalidate(event.patientId());
+    }
+
+    private byte[] build(Patient patient) {
+        Optional<DossierHighlights> dossier = dossierMedicalRepository.findHighlightsByPatientId(patient.getId());
+        List<ConsultationSummary> recent = dossier
+                .map(d -> consultationRepository.findTimeline(d.id(), Limit.of(consultations)))
+                .orElse(List.of());
+        try {
+            return objectMapper.writeValueAsBytes(
+                    new PatientScanSummary(PatientDetail.of(patient), dossier.orElse(null), recent));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation du résumé patient impossible", e);
+        }
+    }
+
+    private static Timer summaryTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("nfc4care.patient.summary")
+                .description("Latence de construction du résumé patient")
+                .tag("result", result)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,44 @@
+package com.nfc4care.service;
+
+import com.nfc4care.entity.Professionnel;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Invalide le cache des principaux à chaque écriture d'un professionnel,
+ * afin qu'une désactivation prenne effet immédiatement
+ */
+@Component
+public class ProfessionnelCacheEvictionListener {
+    
+    private final CustomUserDetailsService userDetailsService;
+    
+    // @Lazy : le listener est instancié par Hibernate pendant la création de l'EntityManagerFactory
+    public ProfessionnelCacheEvictionListener(@Lazy CustomUserDetailsService userDetailsService) {
+        this.userDetailsService = userDetailsService;
+    }
+    
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Professionnel professionnel) {
+        Long id = professionnel.getId();
+        String email = professionnel.getEmail();
+        userDetailsService.evictPrincipal(id, email);
+        
+        // Une lecture concurrente peut avoir remis l'ancien état en cache avant le commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userDetailsService.evictPrincipal(id, email);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.nfc4care.service;
+
+import com.nfc4care.entity.Consultation;
+import com.nfc4care.entity.DossierMedical;
+import com.nfc4care.entity.Patient;
+import com.nfc4care.entity.Professionnel;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Empreinte SHA-256 canonique des enregistrements médicaux.
+ *
+ * Encodage (v1) : une étiquette de type, puis chaque champ dans un ordre fixe, écrit directement
+ * dans le digest sans chaîne intermédiaire :
+ * <ul>
+ *     <li>{@code null} : un octet 0 ;</li>
+ *     <li>texte : un octet 1, la longueur UTF-8 sur 4 octets big-endian, puis les octets UTF-8 ;</li>
+ *     <li>entier long : un octet 1 puis 8 octets big-endian ;</li>
+ *     <li>date-heure : texte ISO-8601 tronqué à la microseconde (précision de PostgreSQL).</li>
+ * </ul>
+ * Le préfixe de longueur rend l'encodage non ambigu ("ab"+"c" et "a"+"bc" donnent des empreintes différentes).
+ * Toute modification de l'ordre ou du format des champs impose une nouvelle étiquette de version.
+ */
+@Component
+public class RecordHasher {
+
+    private static final String CONSULTATION_TAG = "nfc4care.consultation.v1";
+    private static final String DOSSIER_MEDICAL_TAG = "nfc4care.dossier-medical.v1";
+    private static final String TEXT_TAG = "nfc4care.text.v1";
+
+    private static final byte ABSENT = 0;
+    private static final byte PRESENT = 1;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // Un encodeur (digest + tampon) par thread, réinitialisé à chaque empreinte
+    private static final ThreadLocal<Encoder> ENCODERS = ThreadLocal.withInitial(Encoder::new);
+
+    public String hash(Consultation consultation) {
+        Encoder encoder = ENCODERS.get().begin(CONSULTATION_TAG);
+        encoder.writeLong(idOf(consultation.getDossierMedical()));
+        encoder.writeLong(idOf(consultation.getProfessionnel()));
+        encoder.writeDateTime(consultation.getDateConsultation());
+        encoder.writeText(consultation.getMotifConsultation());
+        encoder.writeText(consultation.getExamenClinique());
+        encoder.writeText(consultation.getDiagnostic());
+        encoder.writeText(consultation.getTraitementPrescrit());
+        encoder.writeText(consultation.getOrdonnance());
+        encoder.writeText(consultation.getObservations());
+        encoder.writeDateTime(consultation.getProchainRdv());
+        return toHex(encoder.finish());
+    }
+
+    public String hash(DossierMedical dossierMedical) {
+        Encoder encoder = ENCODERS.get().begin(DOSSIER_MEDICAL_TAG);
+        encoder.writeLong(idOf(dossierMedical.getPatient()));
+        encoder.writeText(dossierMedical.getAntecedentsMedicaux());
+        encoder.writeText(dossierMedical.getAntecedentsChirurgicaux());
+        encoder.writeText(dossierMedical.getAntecedentsFamiliaux());
+        encoder.writeText(dossierMedical.getTraitementsEnCours());
+        encoder.writeText(dossierMedical.getAllergies());
+        encoder.writeText(dossierMedical.getObservationsGenerales());
+        encoder.writeLong(idOf(dossierMedical.getProfessionnelCreation()));
+        return toHex(encoder.finish());
+    }
+
+    /**
+     * Empreinte d'un contenu libre (même encodage, un seul champ texte)
+     */
+    public String hash(String content) {
+        Encoder encoder = ENCODERS.get().begin(TEXT_TAG);
+        encoder.writeText(content);
+        return toHex(encoder.finish());
+    }
+
+    /**
+     * Encodage hexadécimal minuscule par table
+     */
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int b = bytes[i] & 0xff;
+            chars[2 * i] = HEX[b >>> 4];
+            chars[2 * i + 1] = HEX[b & 0x0f];
+        }
+        return new String(chars);
+    }
+
+    // Les ids des associations sont lus sans initialiser les proxys paresseux
+    private static Long idOf(DossierMedical dossierMedical) {
+        return dossierMedical == null ? null : dossierMedical.getId();
+    }
+
+    private static Long idOf(Patient patient) {
+        return patient == null ? null : patient.getId();
+    }
+
+    private static Long idOf(Professionnel professionnel) {
+        return professionnel == null ? null : professionnel.getId();
+    }
+
+    /**
+     * Écrit l'encodage canonique dans un digest réutilisé, par blocs d'un tampon fixe
+     */
+    private static final class Encoder {
+
+        private final MessageDigest digest;
+        private final byte[] buffer = new byte[1024];
+        private int position;
+
+        Encoder() {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 indisponible", e);
+            }
+        }
+
+        Encoder begin(String tag) {
+            digest.reset();
+            position = 0;
+            writeText(tag);
+            return this;
+        }
+
+        byte[] finish() {
+            flush();
+            return digest.digest();
+        }
+
+        void writeLong(Long value) {
+            if (value == null) {
+                put(ABSENT);
+                return;
+            }
+            put(PRESENT);
+            long v = value;
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                put((byte) (v >>> shift));
+            }
+        }
+
+        void writeDateTime(LocalDateTime value) {
+            writeText(value == null ? null : value.truncatedTo(ChronoUnit.MICROS).toString());
+        }
+
+        void writeText(String value) {
+            if (value == null) {
+                put(ABSENT);
+                return;
+            }
+            put(PRESENT);
+            int length = utf8Length(value);
+            put((byte) (length >>> 24));
+            put((byte) (length >>> 16));
+            put((byte) (length >>> 8));
+            put((byte) length);
+
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    put((byte) c);
+                } else if (c < 0x800) {
+                    put((byte) (0xc0 | (c >> 6)));
+                    put((byte) (0x80 | (c & 0x3f)));
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    put((byte) (0xf0 | (codePoint >> 18)));
+                    put((byte) (0x80 | ((codePoint >> 12) & 0x3f)));
+                    put((byte) (0x80 | ((codePoint >> 6) & 0x3f)));
+                    put((byte) (0x80 | (codePoint & 0x3f)));
+                } else if (Character.isSurrogate(c)) {
+                    // Surrogate isolé : remplacé par '?' comme String.getBytes(UTF_8)
+                    put((byte) '?');
+                } else {
+                    put((byte) (0xe0 | (c >> 12)));
+                    put((byte) (0x80 | ((c >> 6) & 0x3f)));
+                    put((byte) (0x80 | (c & 0x3f)));
+                }
+            }
+        }
+
+        private static int utf8Length(String value) {
+            int length = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    length += 1;
+                } else if (c < 0x800) {
+                    length += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    length += 4;
+                    i++;
+                } else if (Character.isSurrogate(c)) {
+                    length += 1;
+                } else {
+                    length += 3;
+                }
+            }
+            return length;
+        }
+
+        private void put(byte b) {
+            if (position == buffer.length) {
+                flush();
+            }
+            buffer[position++] = b;
+        }
+
+        private void flush() {
+            digest.update(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
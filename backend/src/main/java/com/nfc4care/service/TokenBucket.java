@@ -0,0 +1,38 @@
+package com.nfc4care.service;
+
+/**
+ * Seau à jetons : {@code capacity} jetons au maximum, rechargés de {@code refillPerSecond} jetons par seconde.
+ * Reproduit un quota du type « N requêtes par seconde avec une rafale de B ».
+ */
+public class TokenBucket {
+    
+    private final long capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefill;
+    
+    public TokenBucket(long capacity, double refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+    
+    /**
+     * Prend un jeton s'il en reste, sans attendre
+     */
+    public synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+        lastRefill = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+    
+    public synchronized double availableTokens() {
+        return Math.min(capacity, tokens + (System.nanoTime() - lastRefill) * refillPerNano);
+    }
+}
@@ -2,40 +2,64 @@ package com.nfc4care.service;
 
 import com.nfc4care.entity.Token;
 import com.nfc4care.repository.TokenRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class TokenService {
     
     private final TokenRepository tokenRepository;
+    private final TokenValidityCache tokenValidityCache;
+    private final WriteBehindQueue writeBehindQueue;
+    private final MeterRegistry meterRegistry;
+    private final int cleanupBatchSize;
+    
+    public TokenService(TokenRepository tokenRepository,
+                        TokenValidityCache tokenValidityCache,
+                        WriteBehindQueue writeBehindQueue,
+                        MeterRegistry meterRegistry,
+                        @Value("${spring.security.jwt.cleanup.batch-size:1000}") int cleanupBatchSize) {
+        this.tokenRepository = tokenRepository;
+        this.tokenValidityCache = tokenValidityCache;
+        this.writeBehindQueue = writeBehindQueue;
+        this.meterRegistry = meterRegistry;
+        this.cleanupBatchSize = cleanupBatchSize;
+    }
     
     /**
      * Sauvegarde un token en base de données
-     * Assure qu'il n'y a qu'un seul token actif par utilisateur
+     * Assure qu'il n'y a qu'un seul token actif par utilisateur : une révocation en masse
+     * suivie d'une insertion, sous un verrou consultatif par utilisateur. Les connexions concurrentes
+     * d'un même compte s'exécutent l'une après l'autre ; l'index unique partiel uq_tokens_one_active_per_user
+     * (init.sql) reste le garde-fou au niveau de la base
      */
     @Transactional
     public Token saveToken(String tokenValue, String userEmail, LocalDateTime expiresAt, String userAgent, String ipAddress) {
         log.info("Sauvegarde du token pour l'utilisateur: {}", userEmail);
         
+        // La révocation ci-dessous voit ainsi le token validé par une connexion concurrente
+        tokenRepository.lockUserTokens(userEmail);
+        
         // Désactiver tous les tokens actifs existants pour cet utilisateur
-        List<Token> activeTokens = tokenRepository.findValidTokensByUser(userEmail, LocalDateTime.now());
-        if (!activeTokens.isEmpty()) {
-            log.info("Désactivation de {} tokens actifs existants pour l'utilisateur: {}", activeTokens.size(), userEmail);
-            for (Token activeToken : activeTokens) {
-                activeToken.setRevoked(true);
-                tokenRepository.save(activeToken);
-                log.debug("Token désactivé: {}", activeToken.getTokenValue().substring(0, Math.min(20, activeToken.getTokenValue().length())));
-            }
+        int revokedCount = tokenRepository.revokeActiveUserTokens(userEmail);
+        if (revokedCount > 0) {
+            log.info("Désactivation de {} tokens actifs existants pour l'utilisateur: {}", revokedCount, userEmail);
+            evictCachedTokens(userEmail);
         }
         
         // Créer le nouveau token
@@ -52,10 +76,6 @@ public class TokenService {
         Token savedToken = tokenRepository.save(token);
         log.info("Nouveau token actif créé avec l'ID: {} pour l'utilisateur: {}", savedToken.getId(), userEmail);
         
-        // Vérifier qu'il n'y a qu'un seul token actif
-        long activeTokenCount = tokenRepository.countValidTokensByUser(userEmail);
-        log.info("Nombre de tokens actifs pour {}: {}", userEmail, activeTokenCount);
-        
         return savedToken;
     }
     
@@ -63,6 +83,19 @@ public class TokenService {
      * Vérifie si un token est valide en base de données
      */
     public boolean isTokenValid(String tokenValue) {
+        return isTokenValid(tokenValue, null);
+    }
+    
+    /**
+     * Vérifie si un token est valide, d'abord dans le cache local puis en base de données.
+     * Le résultat est mis en cache au plus jusqu'à l'expiration du JWT.
+     */
+    public boolean isTokenValid(String tokenValue, Instant jwtExpiration) {
+        Optional<Boolean> cached = tokenValidityCache.get(tokenValue);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        
         log.debug("Vérification de la validité du token: {}", tokenValue.substring(0, Math.min(20, tokenValue.length())));
         
         Optional<Token> tokenOpt = tokenRepository.findByTokenValue(tokenValue);
@@ -73,26 +106,55 @@ public class TokenService {
         }
         
         Token token = tokenOpt.get();
+        Instant expiresAt = token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant();
+        if (jwtExpiration != null && jwtExpiration.isBefore(expiresAt)) {
+            expiresAt = jwtExpiration;
+        }
         
         // Vérifier si le token est révoqué
         if (token.isRevoked()) {
             log.warn("Token révoqué pour l'utilisateur: {}", token.getUserEmail());
+            tokenValidityCache.put(tokenValue, token.getUserEmail(), false, expiresAt);
             return false;
         }
         
         // Vérifier si le token est expiré
         if (token.isExpired() || token.getExpiresAt().isBefore(LocalDateTime.now())) {
             log.warn("Token expiré pour l'utilisateur: {}", token.getUserEmail());
-            // Marquer comme expiré en base
-            token.setExpired(true);
-            tokenRepository.save(token);
+            // Marquer comme expiré en base (écriture différée, pas sur le chemin de lecture)
+            if (!token.isExpired()) {
+                writeBehindQueue.markTokenExpired(token.getId());
+            }
             return false;
         }
         
         log.debug("Token valide pour l'utilisateur: {}", token.getUserEmail());
+        tokenValidityCache.put(tokenValue, token.getUserEmail(), true, expiresAt);
         return true;
     }
     
+    /**
+     * Rotation d'un refresh token : l'ancien est révoqué de façon atomique puis le nouveau est enregistré.
+     * Si l'ancien avait déjà été remplacé par une rotation (réutilisation), toutes les sessions de l'utilisateur
+     * sont révoquées. Un token révoqué autrement (connexion sur un autre appareil, déconnexion) est seulement refusé.
+     */
+    @Transactional(noRollbackFor = RuntimeException.class)
+    public Token rotateRefreshToken(String oldTokenValue, String newTokenValue, String userEmail,
+                                    LocalDateTime expiresAt, String userAgent, String ipAddress) {
+        int rotated = tokenRepository.revokeIfActive(oldTokenValue, LocalDateTime.now());
+        
+        if (rotated == 0) {
+            Optional<Token> existing = tokenRepository.findByTokenValue(oldTokenValue);
+            if (existing.isPresent() && existing.get().isRotated()) {
+                log.warn("Réutilisation d'un refresh token détectée pour l'utilisateur: {}. Révocation de toutes les sessions", userEmail);
+                revokeAllUserTokens(userEmail);
+            }
+            throw new RuntimeException("Refresh token invalide ou déjà utilisé");
+        }
+        
+        return saveToken(newTokenValue, userEmail, expiresAt, userAgent, ipAddress);
+    }
+    
     /**
      * Récupère l'email de l'utilisateur associé au token
      */
@@ -104,6 +166,7 @@ public class TokenService {
     /**
      * Révoque un token spécifique
      */
+    @Transactional
     public void revokeToken(String tokenValue) {
         log.info("Révocation du token: {}", tokenValue.substring(0, Math.min(20, tokenValue.length())));
         
@@ -113,6 +176,7 @@ public class TokenService {
                     tokenRepository.save(token);
                     log.info("Token révoqué pour l'utilisateur: {}", token.getUserEmail());
                 });
+        evictCachedToken(tokenValue);
     }
     
     /**
@@ -121,6 +185,7 @@ public class TokenService {
     public void revokeAllUserTokens(String userEmail) {
         log.info("Révocation de tous les tokens pour l'utilisateur: {}", userEmail);
         tokenRepository.revokeAllUserTokens(userEmail);
+        evictCachedTokens(userEmail);
     }
     
     /**
@@ -131,21 +196,27 @@ public class TokenService {
     }
     
     /**
-     * Nettoie les tokens expirés (tâche planifiée)
+     * Nettoie les tokens expirés (tâche planifiée).
+     * Chaque lot est une instruction SQL dans sa propre transaction.
      */
     @Scheduled(fixedRate = 3600000) // Toutes les heures
-    @Transactional
     public void cleanExpiredTokens() {
         log.info("Nettoyage des tokens expirés...");
         
         try {
             // Marquer les tokens expirés
-            int expiredCount = tokenRepository.expireTokens(LocalDateTime.now());
+            LocalDateTime now = LocalDateTime.now();
+            long start = System.nanoTime();
+            long expiredCount = runInBatches(() -> tokenRepository.expireTokensBatch(now, cleanupBatchSize));
+            recordMaintenance("expire", expiredCount, start);
             log.info("{} tokens marqués comme expirés", expiredCount);
             
             // Supprimer les tokens expirés depuis plus de 24h
-            LocalDateTime cutoffDate = LocalDateTime.now().minusHours(24);
-            tokenRepository.deleteByExpiresAtBefore(cutoffDate);
+            LocalDateTime cutoffDate = now.minusHours(24);
+            start = System.nanoTime();
+            long deletedCount = runInBatches(() -> tokenRepository.deleteExpiredBatch(cutoffDate, cleanupBatchSize));
+            recordMaintenance("delete", deletedCount, start);
+            log.info("{} tokens expirés supprimés", deletedCount);
             
             log.info("Nettoyage des tokens expirés terminé avec succès");
         } catch (Exception e) {
@@ -154,29 +225,22 @@ public class TokenService {
     }
     
     /**
-     * Nettoie les tokens multiples pour tous les utilisateurs (tâche planifiée)
+     * Nettoie les tokens multiples pour tous les utilisateurs (tâche planifiée).
+     * Une seule instruction (fonction de fenêtre) garde le token actif le plus récent par utilisateur.
      */
     @Scheduled(fixedRate = 1800000) // Toutes les 30 minutes
-    @Transactional
     public void cleanMultipleTokensForAllUsers() {
         log.info("Vérification des tokens multiples pour tous les utilisateurs...");
         
         try {
-            // Récupérer tous les utilisateurs avec des tokens actifs
-            List<String> usersWithTokens = tokenRepository.findUsersWithActiveTokens(LocalDateTime.now());
-            
-            int cleanedUsers = 0;
-            for (String userEmail : usersWithTokens) {
-                long activeTokenCount = tokenRepository.countValidTokensByUser(userEmail);
-                if (activeTokenCount > 1) {
-                    log.info("Nettoyage des tokens multiples pour l'utilisateur: {} ({} tokens)", userEmail, activeTokenCount);
-                    cleanMultipleTokensForUser(userEmail);
-                    cleanedUsers++;
-                }
-            }
+            LocalDateTime now = LocalDateTime.now();
+            long start = System.nanoTime();
+            long revokedCount = runInBatches(() -> tokenRepository.revokeAllButNewestActiveBatch(now, cleanupBatchSize));
+            recordMaintenance("revoke-multiple", revokedCount, start);
             
-            if (cleanedUsers > 0) {
-                log.info("Nettoyage terminé pour {} utilisateurs", cleanedUsers);
+            if (revokedCount > 0) {
+                tokenValidityCache.invalidateAll();
+                log.info("Nettoyage terminé: {} tokens multiples révoqués", revokedCount);
             } else {
                 log.debug("Aucun utilisateur avec des tokens multiples trouvé");
             }
@@ -185,6 +249,25 @@ public class TokenService {
         }
     }
     
+    /**
+     * Exécute une instruction par lots jusqu'à ce qu'un lot incomplet indique la fin
+     */
+    private long runInBatches(IntSupplier batch) {
+        long total = 0;
+        int affected;
+        do {
+            affected = batch.getAsInt();
+            total += affected;
+        } while (affected >= cleanupBatchSize);
+        return total;
+    }
+    
+    private void recordMaintenance(String job, long rows, long startNanos) {
+        meterRegistry.timer("nfc4care.tokens.maintenance", "job", job)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("nfc4care.tokens.maintenance.rows", "job", job).increment(rows);
+    }
+    
     /**
      * Compte le nombre de tokens valides pour un utilisateur
      */
@@ -193,52 +276,34 @@ public class TokenService {
     }
     
     /**
-     * Nettoie les tokens multiples pour un utilisateur
-     * Garde seulement le token le plus récent
+     * Invalide le cache de validité d'un token, puis à nouveau après le commit
+     * pour ne pas conserver une lecture concurrente antérieure à la révocation
      */
-    @Transactional
-    public void cleanMultipleTokensForUser(String userEmail) {
-        log.info("Nettoyage des tokens multiples pour l'utilisateur: {}", userEmail);
-        
-        List<Token> activeTokens = tokenRepository.findValidTokensByUser(userEmail, LocalDateTime.now());
-        
-        if (activeTokens.size() > 1) {
-            log.warn("{} tokens actifs trouvés pour l'utilisateur: {}", activeTokens.size(), userEmail);
-            
-            // Trier par date de création (le plus récent en premier)
-            activeTokens.sort((t1, t2) -> t2.getCreatedAt().compareTo(t1.getCreatedAt()));
-            
-            // Garder seulement le premier (le plus récent) et désactiver les autres
-            for (int i = 1; i < activeTokens.size(); i++) {
-                Token tokenToRevoke = activeTokens.get(i);
-                tokenToRevoke.setRevoked(true);
-                tokenRepository.save(tokenToRevoke);
-                log.info("Token désactivé (multiple): {}", tokenToRevoke.getTokenValue().substring(0, Math.min(20, tokenToRevoke.getTokenValue().length())));
-            }
-            
-            log.info("Nettoyage terminé. 1 token actif conservé pour l'utilisateur: {}", userEmail);
-        } else {
-            log.debug("Aucun nettoyage nécessaire pour l'utilisateur: {} ({} tokens actifs)", userEmail, activeTokens.size());
+    private void evictCachedToken(String tokenValue) {
+        tokenValidityCache.invalidate(tokenValue);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    tokenValidityCache.invalidate(tokenValue);
+                }
+            });
         }
     }
     
     /**
-     * Vérifie et corrige l'état des tokens pour un utilisateur
-     * Assure qu'il n'y a qu'un seul token actif
+     * Invalide le cache de validité d'un utilisateur, puis à nouveau après le commit
+     * pour ne pas conserver une lecture concurrente antérieure à la révocation
      */
-    @Transactional
-    public void ensureSingleActiveToken(String userEmail) {
-        log.info("Vérification de l'état des tokens pour l'utilisateur: {}", userEmail);
-        
-        long activeTokenCount = tokenRepository.countValidTokensByUser(userEmail);
-        
-        if (activeTokenCount > 1) {
-            log.warn("{} tokens actifs détectés pour l'utilisateur: {}. Nettoyage en cours...", activeTokenCount, userEmail);
-            cleanMultipleTokensForUser(userEmail);
-        } else if (activeTokenCount == 1) {
-            log.debug("État correct: 1 token actif pour l'utilisateur: {}", userEmail);
-        } else {
-            log.debug("Aucun token actif pour l'utilisateur: {}", userEmail);
+    private void evictCachedTokens(String userEmail) {
+        tokenValidityCache.invalidateUser(userEmail);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    tokenValidityCache.invalidateUser(userEmail);
+                }
+            });
         }
     }
 } 
\ No newline at end of file
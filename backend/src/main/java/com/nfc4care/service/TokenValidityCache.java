@@ -0,0 +1,105 @@
+package com.nfc4care.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Cache local de la validité des tokens, indexé par l'empreinte SHA-256 du token.
+ * Une entrée vit au plus {@code ttl} et jamais au-delà de l'expiration du JWT.
+ * Les révocations faites sur ce nœud invalident immédiatement les entrées concernées.
+ */
+@Component
+@Slf4j
+public class TokenValidityCache {
+
+    private final Cache<String, Entry> cache;
+
+    public TokenValidityCache(
+            @Value("${spring.security.jwt.cache.maximum-size:10000}") long maximumSize,
+            @Value("${spring.security.jwt.cache.ttl:60000}") long ttlMillis
+    ) {
+        long ttlNanos = Duration.ofMillis(ttlMillis).toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        long untilExpiration = Duration.between(Instant.now(), entry.expiresAt()).toNanos();
+                        return Math.max(0, Math.min(ttlNanos, untilExpiration));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Retourne la validité mise en cache pour ce token, si elle est connue
+     */
+    public Optional<Boolean> get(String tokenValue) {
+        Entry entry = cache.getIfPresent(digest(tokenValue));
+        return entry == null ? Optional.empty() : Optional.of(entry.valid());
+    }
+
+    /**
+     * Enregistre la validité d'un token jusqu'à son expiration (bornée par le TTL)
+     */
+    public void put(String tokenValue, String userEmail, boolean valid, Instant expiresAt) {
+        cache.put(digest(tokenValue), new Entry(userEmail, valid, expiresAt));
+    }
+
+    /**
+     * Retire un token du cache
+     */
+    public void invalidate(String tokenValue) {
+        cache.invalidate(digest(tokenValue));
+    }
+
+    /**
+     * Retire tous les tokens d'un utilisateur du cache
+     */
+    public void invalidateUser(String userEmail) {
+        cache.asMap().values().removeIf(entry -> entry.userEmail().equals(userEmail));
+        log.debug("Cache de validité invalidé pour l'utilisateur: {}", userEmail);
+    }
+
+    /**
+     * Vide entièrement le cache (après une révocation en masse)
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private String digest(String tokenValue) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(tokenValue.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    private record Entry(String userEmail, boolean valid, Instant expiresAt) {
+    }
+}
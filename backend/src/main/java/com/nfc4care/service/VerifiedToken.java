@@ -0,0 +1,24 @@
+package com.nfc4care.service;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+
+/**
+ * JWT dont la signature a été vérifiée, avec ses claims déjà extraits.
+ * Une seule instance est construite par requête HTTP (voir {@link JwtService#verify(String)}).
+ */
+public record VerifiedToken(String token, Claims claims) {
+
+    public String subject() {
+        return claims.getSubject();
+    }
+
+    public Instant expiration() {
+        return claims.getExpiration().toInstant();
+    }
+
+    public boolean isExpired() {
+        return expiration().isBefore(Instant.now());
+    }
+}
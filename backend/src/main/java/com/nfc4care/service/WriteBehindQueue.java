@@ -0,0 +1,133 @@
+package com.nfc4care.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * File d'écritures différées pour les mises à jour non critiques (dernière connexion, tokens expirés).
+ * Les mises à jour successives d'une même ligne sont fusionnées, puis envoyées en batch JDBC
+ * à intervalle court. Un dernier vidage est fait à l'arrêt de l'application.
+ */
+@Component
+@Slf4j
+public class WriteBehindQueue {
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final ScheduledExecutorService scheduler;
+    private final Counter flushedRows;
+    
+    // professionnel id -> date de dernière connexion la plus récente
+    private final Map<Long, LocalDateTime> lastLogins = new ConcurrentHashMap<>();
+    // ids des tokens à marquer comme expirés
+    private final Set<Long> expiredTokenIds = ConcurrentHashMap.newKeySet();
+    
+    public WriteBehindQueue(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${nfc4care.write-behind.flush-interval:1000}") long flushIntervalMillis
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flushedRows = meterRegistry.counter("nfc4care.write-behind.rows");
+        meterRegistry.gauge("nfc4care.write-behind.pending", this, queue -> queue.lastLogins.size() + queue.expiredTokenIds.size());
+        
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "write-behind-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    public void recordLastLogin(Long professionnelId, LocalDateTime loginAt) {
+        lastLogins.merge(professionnelId, loginAt, (current, next) -> next.isAfter(current) ? next : current);
+    }
+    
+    public void markTokenExpired(Long tokenId) {
+        expiredTokenIds.add(tokenId);
+    }
+    
+    /**
+     * Envoie les mises à jour en attente. Appelé par le planificateur interne et à l'arrêt.
+     */
+    public synchronized void flush() {
+        flushLastLogins();
+        flushExpiredTokens();
+    }
+    
+    private void flushLastLogins() {
+        if (lastLogins.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>();
+        for (Long id : List.copyOf(lastLogins.keySet())) {
+            LocalDateTime loginAt = lastLogins.remove(id);
+            if (loginAt != null) {
+                Timestamp timestamp = Timestamp.valueOf(loginAt);
+                batch.add(new Object[]{timestamp, id, timestamp});
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE professionnels SET derniere_connexion = ? " +
+                    "WHERE id = ? AND (derniere_connexion IS NULL OR derniere_connexion < ?)",
+                    batch);
+            flushedRows.increment(batch.size());
+            log.debug("{} dernières connexions enregistrées", batch.size());
+        } catch (RuntimeException e) {
+            // Remettre en file pour le prochain vidage
+            batch.forEach(row -> recordLastLogin((Long) row[1], ((Timestamp) row[0]).toLocalDateTime()));
+            throw e;
+        }
+    }
+    
+    private void flushExpiredTokens() {
+        if (expiredTokenIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>();
+        for (Long id : List.copyOf(expiredTokenIds)) {
+            if (expiredTokenIds.remove(id)) {
+                batch.add(new Object[]{id});
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate("UPDATE tokens SET expired = true WHERE id = ? AND expired = false", batch);
+            flushedRows.increment(batch.size());
+            log.debug("{} tokens marqués comme expirés", batch.size());
+        } catch (RuntimeException e) {
+            batch.forEach(row -> expiredTokenIds.add((Long) row[0]));
+            throw e;
+        }
+    }
+    
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Erreur lors du vidage des écritures différées: {}", e.getMessage(), e);
+        }
+    }
+    
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        flushQuietly();
+    }
+}
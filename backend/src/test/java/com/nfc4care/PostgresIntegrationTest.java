@@ -0,0 +1,72 @@
+package com.nfc4care;
+
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Base des tests d'intégration sur PostgreSQL (profil {@code test}, schéma créé par database/init.sql).
+ *
+ * La base est celle de {@code NFC4CARE_TEST_DATABASE_URL} (avec {@code NFC4CARE_TEST_DATABASE_USERNAME}
+ * et {@code NFC4CARE_TEST_DATABASE_PASSWORD}) si la variable est définie, sinon un conteneur PostgreSQL jetable.
+ * Sans l'une ni l'autre, les tests sont ignorés : la condition est enregistrée par {@code @ExtendWith}, hérité
+ * par les sous-classes (contrairement à {@code @EnabledIf}), et évaluée avant le chargement du contexte Spring.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@ExtendWith(PostgresIntegrationTest.DatabaseAvailable.class)
+public abstract class PostgresIntegrationTest {
+
+    private static final String EXTERNAL_URL = System.getenv("NFC4CARE_TEST_DATABASE_URL");
+
+    private static PostgreSQLContainer<?> container;
+
+    static boolean databaseAvailable() {
+        return EXTERNAL_URL != null || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        if (EXTERNAL_URL != null) {
+            registry.add("spring.datasource.url", () -> EXTERNAL_URL);
+            registry.add("spring.datasource.username", () -> env("NFC4CARE_TEST_DATABASE_USERNAME", "nfc4care"));
+            registry.add("spring.datasource.password", () -> env("NFC4CARE_TEST_DATABASE_PASSWORD", "nfc4care"));
+            return;
+        }
+        PostgreSQLContainer<?> postgres = startContainer();
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    // Un seul conteneur pour toute la campagne de tests, arrêté avec la JVM
+    private static synchronized PostgreSQLContainer<?> startContainer() {
+        if (container == null) {
+            container = new PostgreSQLContainer<>("postgres:15-alpine");
+            container.start();
+        }
+        return container;
+    }
+
+    static final class DatabaseAvailable implements ExecutionCondition {
+
+        @Override
+        public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+            return databaseAvailable()
+                    ? ConditionEvaluationResult.enabled("Base PostgreSQL de test disponible")
+                    : ConditionEvaluationResult.disabled("Ni NFC4CARE_TEST_DATABASE_URL ni Docker : test d'intégration ignoré");
+        }
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+}
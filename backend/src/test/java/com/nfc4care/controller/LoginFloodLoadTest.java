@@ -0,0 +1,155 @@
+package com.nfc4care.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nfc4care.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test de charge : une rafale de connexions (mots de passe erronés, 64 clients, environ 60 tentatives/s,
+ * bien au-delà de ce que le pool de hachage absorbe) ne dégrade pas la latence des scans NFC :
+ * la vérification BCrypt est confinée au pool dédié et les connexions excédentaires sont rejetées en 503.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "spring.security.password-hashing.threads=1",
+        "spring.security.password-hashing.queue-capacity=4",
+        // Limitation par compte et par IP neutralisée : la rafale doit atteindre le pool de hachage
+        "spring.security.login-throttling.max-failures-per-email=1000000",
+        "spring.security.login-throttling.max-failures-per-ip=1000000",
+        "logging.level.com.nfc4care=WARN"
+})
+class LoginFloodLoadTest extends PostgresIntegrationTest {
+
+    private static final int FLOOD_CLIENTS = 64;
+    private static final long FLOOD_PAUSE_MILLIS = 1000;
+    private static final int SCANS = 300;
+    private static final String NFC_URL = "/api/patients/nfc/nfc-001-sophie";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void nfcLookupsKeepTheirLatencyDuringALoginFlood() throws Exception {
+        String token = login("doctor@example.com", "password");
+        // Échauffement (JIT, cache de scan)
+        measureScans(token, 100);
+        long[] baseline = measureScans(token, SCANS);
+
+        AtomicBoolean flooding = new AtomicBoolean(true);
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger attempts = new AtomicInteger();
+        ExecutorService flood = Executors.newFixedThreadPool(FLOOD_CLIENTS);
+        long[] duringFlood;
+        try {
+            for (int i = 0; i < FLOOD_CLIENTS; i++) {
+                int client = i;
+                flood.execute(() -> {
+                    while (flooding.get()) {
+                        int status = post("/api/auth/login",
+                                "{\"email\":\"flood-" + client + "@example.com\",\"password\":\"mauvais\"}").statusCode();
+                        attempts.incrementAndGet();
+                        if (status == 503) {
+                            rejected.incrementAndGet();
+                        }
+                        pause(FLOOD_PAUSE_MILLIS);
+                    }
+                });
+            }
+            // La rafale est installée : le pool de hachage est saturé
+            Thread.sleep(1000);
+            duringFlood = measureScans(token, SCANS);
+        } finally {
+            flooding.set(false);
+            flood.shutdown();
+            flood.awaitTermination(30, TimeUnit.SECONDS);
+        }
+
+        long baselineP95 = percentile(baseline, 0.95);
+        long floodP95 = percentile(duringFlood, 0.95);
+        System.out.printf("Scans NFC p50/p95 : %d/%d µs au repos, %d/%d µs pendant la rafale (%d connexions, %d rejetées en 503)%n",
+                percentile(baseline, 0.5) / 1000, baselineP95 / 1000,
+                percentile(duringFlood, 0.5) / 1000, floodP95 / 1000, attempts.get(), rejected.get());
+
+        assertTrue(rejected.get() > 0, "les connexions excédentaires doivent être rejetées en 503");
+        // Marge : sur une machine à un seul cœur, le thread de hachage partage le CPU avec les scans
+        assertTrue(floodP95 <= Math.max(4 * baselineP95, baselineP95 + TimeUnit.MILLISECONDS.toNanos(50)),
+                "p95 des scans NFC dégradé pendant la rafale : " + floodP95 / 1000 + " µs contre " + baselineP95 / 1000 + " µs");
+    }
+
+    private long[] measureScans(String token, int count) throws Exception {
+        long[] latencies = new long[count];
+        for (int i = 0; i < count; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + NFC_URL))
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build();
+            long start = System.nanoTime();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            latencies[i] = System.nanoTime() - start;
+            assertEquals(200, response.statusCode());
+        }
+        return latencies;
+    }
+
+    private String login(String email, String password) throws Exception {
+        HttpResponse<String> response = post("/api/auth/login",
+                "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}");
+        assertEquals(200, response.statusCode());
+        JsonNode body = objectMapper.readTree(response.body());
+        return body.get("token").asText();
+    }
+
+    private HttpResponse<String> post(String path, String json) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long percentile(long[] latencies, double quantile) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,92 @@
+package com.nfc4care.service;
+
+import com.nfc4care.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Vidage de l'outbox vers le registre en mémoire (profil test) : une transaction par lot,
+ * une preuve d'inclusion par enregistrement
+ */
+class AnchoringOutboxDrainTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private AnchoringService anchoringService;
+
+    @Autowired
+    private InMemoryAnchoringLedger ledger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> inserted = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        for (Long id : inserted) {
+            jdbcTemplate.update("DELETE FROM anchoring_outbox WHERE record_type = 'CONSULTATION' AND record_id = ?", id);
+            jdbcTemplate.update("DELETE FROM consultations WHERE id = ?", id);
+        }
+    }
+
+    @Test
+    void drainAnchorsEveryPendingRecordWithAVerifiableProof() {
+        // 2^2 + 1 enregistrements : la dernière feuille n'a pas de frère
+        for (int i = 0; i < 5; i++) {
+            insertConsultation("Contrôle " + i);
+        }
+        anchoringService.enqueueUnanchored();
+
+        anchoringService.drain();
+
+        String transactionHash = null;
+        for (Long id : inserted) {
+            Map<String, Object> row = jdbcTemplate.queryForMap(
+                    "SELECT hash_contenu, blockchain_txn_hash, merkle_proof FROM consultations WHERE id = ?", id);
+            assertNotNull(row.get("blockchain_txn_hash"), "consultation " + id + " non ancrée");
+            transactionHash = transactionHash == null ? (String) row.get("blockchain_txn_hash") : transactionHash;
+            assertEquals(transactionHash, row.get("blockchain_txn_hash"), "un lot, une transaction");
+
+            String root = MerkleTree.rootFromProof((String) row.get("hash_contenu"), (String) row.get("merkle_proof"));
+            assertEquals(ledger.anchoredRoot(transactionHash).orElseThrow(), root);
+        }
+        assertEquals(0, pendingOutboxRows());
+    }
+
+    @Test
+    void recordModifiedAfterEnqueueIsNotAnchoredWithItsOldHash() {
+        Long id = insertConsultation("Contrôle");
+        anchoringService.enqueueUnanchored();
+        // Modification dont la nouvelle empreinte n'est pas encore dans l'outbox
+        jdbcTemplate.update("UPDATE consultations SET hash_contenu = repeat('f', 64) WHERE id = ?", id);
+
+        anchoringService.drain();
+
+        assertNull(jdbcTemplate.queryForObject("SELECT blockchain_txn_hash FROM consultations WHERE id = ?", String.class, id));
+        assertEquals(0, pendingOutboxRows());
+    }
+
+    private Long insertConsultation(String motif) {
+        Long id = jdbcTemplate.queryForObject("INSERT INTO consultations (dossier_medical_id, professionnel_id, "
+                + "date_consultation, motif_consultation, hash_contenu, date_creation, date_modification) "
+                + "VALUES ((SELECT MIN(id) FROM dossiers_medicaux), (SELECT MIN(id) FROM professionnels), NOW(), ?, "
+                + "repeat('0', 64), NOW(), NOW()) RETURNING id", Long.class, motif);
+        inserted.add(id);
+        return id;
+    }
+
+    private int pendingOutboxRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM anchoring_outbox WHERE record_type = 'CONSULTATION' "
+                + "AND record_id = ANY (?)", Integer.class, (Object) inserted.toArray(new Long[0]));
+    }
+}
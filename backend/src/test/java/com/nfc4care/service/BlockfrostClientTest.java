@@ -0,0 +1,126 @@
+package com.nfc4care.service;
+
+import com.nfc4care.simulator.LedgerSimulator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comportement de BlockfrostClient face au registre simulé : latence et erreurs injectées
+ */
+class BlockfrostClientTest {
+
+    private static final String MISSING_TX = "0".repeat(64);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LedgerSimulator simulator;
+    private BlockfrostClient client;
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.shutdown();
+        }
+        if (simulator != null) {
+            simulator.close();
+        }
+    }
+
+    @Test
+    void submitsAndReadsBackMetadata() throws Exception {
+        simulator = simulator("constant:0", 0);
+        client = client(20, 1000);
+
+        String txHash = client.post("submit", "/tx/submit", Map.of("merkle_root", "abc")).get("tx_hash").asText();
+
+        assertEquals("abc", client.get("metadata", "/tx/{hash}/metadata", txHash).orElseThrow().get("merkle_root").asText());
+        assertTrue(client.get("metadata", "/tx/{hash}/metadata", MISSING_TX).isEmpty());
+    }
+
+    @Test
+    void slowLedgerFailsAtTheDeadline() throws Exception {
+        simulator = simulator("constant:3000", 0);
+        client = client(20, 1000, 300);
+
+        long start = System.nanoTime();
+        LedgerUnavailableException error = assertThrows(LedgerUnavailableException.class,
+                () -> client.get("metadata", "/tx/{hash}/metadata", MISSING_TX));
+
+        assertTrue(error.getMessage().startsWith("Délai Blockfrost dépassé"), error.getMessage());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1500, "l'appel doit échouer au délai (300 ms)");
+        assertEquals(1, calls("timeout"));
+    }
+
+    @Test
+    void callsBeyondTheBulkheadAreRejectedImmediately() throws Exception {
+        simulator = simulator("constant:1000", 0);
+        client = client(1, 1000);
+        CompletableFuture<?> inFlight = CompletableFuture.runAsync(() -> client.post("submit", "/tx/submit", Map.of()));
+        Thread.sleep(200);
+
+        LedgerUnavailableException error = assertThrows(LedgerUnavailableException.class,
+                () -> client.post("submit", "/tx/submit", Map.of()));
+
+        assertTrue(error.getMessage().startsWith("Trop d'appels Blockfrost en cours"), error.getMessage());
+        assertEquals(1, calls("bulkhead_full"));
+        inFlight.join();
+    }
+
+    @Test
+    void circuitOpensAfterRepeatedFailures() throws Exception {
+        simulator = simulator("constant:0", 1);
+        client = client(20, 1000);
+        // minimumNumberOfCalls = 10, seuil d'échecs 50 %
+        for (int i = 0; i < 10; i++) {
+            assertThrows(RuntimeException.class, () -> client.post("submit", "/tx/submit", Map.of()));
+        }
+
+        LedgerUnavailableException error = assertThrows(LedgerUnavailableException.class,
+                () -> client.post("submit", "/tx/submit", Map.of()));
+
+        assertTrue(error.getMessage().contains("circuit ouvert"), error.getMessage());
+        assertEquals(10, calls("error"));
+        assertEquals(1, calls("circuit_open"));
+    }
+
+    @Test
+    void quotaIsEnforcedBeforeCallingTheLedger() throws Exception {
+        simulator = simulator("constant:0", 0);
+        client = client(20, 2);
+
+        client.post("submit", "/tx/submit", Map.of());
+        client.post("submit", "/tx/submit", Map.of());
+
+        assertThrows(LedgerUnavailableException.class, () -> client.post("submit", "/tx/submit", Map.of()));
+        assertEquals(1, calls("throttled"));
+    }
+
+    private static LedgerSimulator simulator(String latency, double errorRate) throws Exception {
+        return LedgerSimulator.start(new LedgerSimulator.Config(0, LedgerSimulator.LatencyDistribution.parse(latency),
+                errorRate, 0, 1000, 1000));
+    }
+
+    private BlockfrostClient client(int maxConcurrentCalls, long burst) {
+        return client(maxConcurrentCalls, burst, 5000);
+    }
+
+    private BlockfrostClient client(int maxConcurrentCalls, long burst, long deadlineMillis) {
+        return new BlockfrostClient(WebClient.builder(), meterRegistry, simulator.baseUrl(), "simulator",
+                4, 500, 500, 10_000, deadlineMillis, deadlineMillis, maxConcurrentCalls, 0.001, burst, 50, 60_000);
+    }
+
+    private long calls(String outcome) {
+        return meterRegistry.find("nfc4care.blockfrost.calls").tag("outcome", outcome).timers().stream()
+                .mapToLong(timer -> timer.count())
+                .sum();
+    }
+}
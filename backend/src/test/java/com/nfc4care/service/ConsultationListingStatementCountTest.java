@@ -0,0 +1,134 @@
+package com.nfc4care.service;
+
+import com.nfc4care.PostgresIntegrationTest;
+import com.nfc4care.dto.PatientSummary;
+import com.nfc4care.entity.Consultation;
+import com.nfc4care.entity.DossierMedical;
+import com.nfc4care.repository.ConsultationRepository;
+import com.nfc4care.repository.DossierMedicalRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Nombre de requêtes SQL des listes : constant quel que soit le nombre de lignes renvoyées
+ * (projections et graphe Consultation.listing en une requête, collections par lots via default_batch_fetch_size).
+ */
+@Transactional
+class ConsultationListingStatementCountTest extends PostgresIntegrationTest {
+
+    private static final int EXTRA_CONSULTATIONS = 60;
+
+    @Autowired
+    private ConsultationService consultationService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private ConsultationRepository consultationRepository;
+
+    @Autowired
+    private DossierMedicalRepository dossierMedicalRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private Long dossierMedicalId;
+    private Long patientId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        dossierMedicalId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM dossiers_medicaux", Long.class);
+        patientId = jdbcTemplate.queryForObject("SELECT patient_id FROM dossiers_medicaux WHERE id = ?", Long.class, dossierMedicalId);
+    }
+
+    @Test
+    void consultationListingsRunOneStatementWhateverTheirSize() {
+        List<Supplier<Integer>> listings = List.of(
+                () -> consultationService.getAllConsultations().size(),
+                () -> consultationService.getConsultationsByPatientId(patientId).size(),
+                () -> consultationService.getTimeline(dossierMedicalId, null, ConsultationService.MAX_TIMELINE_SIZE).getItems().size(),
+                () -> touchAssociations(consultationRepository.findByDossierMedicalIdOrderByDateConsultationDesc(dossierMedicalId))
+        );
+
+        for (Supplier<Integer> listing : listings) {
+            assertEquals(1, statements(listing));
+        }
+
+        addConsultations(EXTRA_CONSULTATIONS);
+
+        for (Supplier<Integer> listing : listings) {
+            assertEquals(1, statements(listing));
+        }
+    }
+
+    @Test
+    void patientListingRunsOneStatement() {
+        long count = statements(() -> patientService.getPatients(null, PatientService.MAX_PAGE_SIZE, null,
+                PatientService.PatientSort.NOM).getItems().stream().map(PatientSummary::email).count());
+
+        assertEquals(1, count);
+    }
+
+    @Test
+    void consultationCollectionsOfSeveralDossiersAreLoadedInOneBatch() {
+        addConsultations(EXTRA_CONSULTATIONS);
+
+        long count = statements(() -> dossierMedicalRepository.findAll().stream()
+                .map(DossierMedical::getConsultations)
+                .mapToInt(List::size)
+                .sum());
+
+        // Dossiers, puis leurs consultations en une requête IN
+        assertEquals(2, count);
+    }
+
+    private long statements(Supplier<?> listing) {
+        // Contexte de persistance vidé : aucune ligne servie par le cache de premier niveau
+        entityManager.clear();
+        statistics.clear();
+        Object result = listing.get();
+        assertTrue(result != null);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private int touchAssociations(List<Consultation> consultations) {
+        consultations.forEach(c -> {
+            c.getDossierMedical().getPatient().getNom();
+            c.getProfessionnel().getNom();
+        });
+        return consultations.size();
+    }
+
+    private void addConsultations(int count) {
+        Long professionnelId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM professionnels", Long.class);
+        for (int i = 0; i < count; i++) {
+            jdbcTemplate.update("INSERT INTO consultations (dossier_medical_id, professionnel_id, date_consultation, "
+                            + "motif_consultation, hash_contenu, date_creation, date_modification) "
+                            + "VALUES (?, ?, NOW() - make_interval(days => ?), 'Contrôle', repeat('0', 64), NOW(), NOW())",
+                    dossierMedicalId, professionnelId, i + 1);
+        }
+    }
+}
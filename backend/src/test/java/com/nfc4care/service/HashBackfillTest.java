@@ -0,0 +1,146 @@
+package com.nfc4care.service;
+
+import com.nfc4care.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashBackfillTest extends PostgresIntegrationTest {
+
+    private static final String PLACEHOLDER_HASH = "0".repeat(64);
+    private static final String FOREIGN_HASH = "3f2b8a0c5d1e7f9a4b6c8d0e2f4a6b8c0d2e4f6a8b0c2d4e6f8a0b2c4d6e8f0a";
+
+    @Autowired
+    private HashBackfill hashBackfill;
+
+    @Autowired
+    private RecordHasher recordHasher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> inserted = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        for (Long id : inserted) {
+            jdbcTemplate.update("DELETE FROM integrity_mismatches WHERE record_type = 'CONSULTATION' AND record_id = ?", id);
+            jdbcTemplate.update("DELETE FROM anchoring_outbox WHERE record_type = 'CONSULTATION' AND record_id = ?", id);
+            jdbcTemplate.update("DELETE FROM consultations WHERE id = ?", id);
+        }
+    }
+
+    @Test
+    void seedDossierHashesOfInitSqlAreV1Hashes() throws IOException {
+        // Empreintes écrites en dur dans database/init.sql, indexées par patient_id
+        Map<Long, String> seedHashes = new HashMap<>();
+        Matcher matcher = Pattern.compile("(?m)^\\((\\d+), .*'([0-9a-f]{64})'")
+                .matcher(Files.readString(Path.of("database/init.sql")));
+        while (matcher.find()) {
+            seedHashes.put(Long.valueOf(matcher.group(1)), matcher.group(2));
+        }
+        assertEquals(10, seedHashes.size());
+
+        jdbcTemplate.query(AnchoredRecords.select(AnchoredRecordType.DOSSIER_MEDICAL) + " WHERE r.patient_id BETWEEN 1 AND 10", rs -> {
+            String computed = AnchoredRecords.hash(recordHasher, AnchoredRecords.read(AnchoredRecordType.DOSSIER_MEDICAL, rs));
+            assertEquals(seedHashes.get(rs.getLong("patient_id")), computed);
+        });
+    }
+
+    @Test
+    void rewritesPlaceholderHashOfUnanchoredRecordAndItsOutboxEntry() {
+        Long id = insertConsultation(PLACEHOLDER_HASH, null);
+        jdbcTemplate.update("INSERT INTO anchoring_outbox (record_type, record_id, hash_contenu, attempts, next_attempt_at, date_creation) "
+                + "VALUES ('CONSULTATION', ?, ?, 0, NOW(), NOW())", id, PLACEHOLDER_HASH);
+
+        assertTrue(hashBackfill.rehashUnanchored() >= 1);
+
+        String hash = jdbcTemplate.queryForObject("SELECT hash_contenu FROM consultations WHERE id = ?", String.class, id);
+        assertEquals(recomputed(id), hash);
+        assertEquals(hash, jdbcTemplate.queryForObject(
+                "SELECT hash_contenu FROM anchoring_outbox WHERE record_type = 'CONSULTATION' AND record_id = ?", String.class, id));
+        assertEquals(0, hashBackfill.rehashUnanchored());
+    }
+
+    @Test
+    void rewritesHashOfTheOldEncoder() throws Exception {
+        // Ancien encodeur : motif + diagnostic + traitement (absent : ""), en UTF-8
+        String oldHash = RecordHasher.toHex(MessageDigest.getInstance("SHA-256")
+                .digest("ContrôleRAS".getBytes(StandardCharsets.UTF_8)));
+        Long id = insertConsultation(oldHash, null);
+
+        hashBackfill.rehashUnanchored();
+
+        assertEquals(recomputed(id), jdbcTemplate.queryForObject("SELECT hash_contenu FROM consultations WHERE id = ?", String.class, id));
+    }
+
+    @Test
+    void recordsOtherDifferencesWithoutRewritingTheHash() {
+        // Empreinte v1 d'un contenu modifié depuis directement en base
+        Long id = insertConsultation(FOREIGN_HASH, null);
+
+        hashBackfill.rehashUnanchored();
+        hashBackfill.rehashUnanchored();
+
+        assertEquals(FOREIGN_HASH, jdbcTemplate.queryForObject("SELECT hash_contenu FROM consultations WHERE id = ?", String.class, id));
+        Map<String, Object> mismatch = jdbcTemplate.queryForMap("SELECT sweep_id, stored_hash, computed_hash FROM integrity_mismatches "
+                + "WHERE record_type = 'CONSULTATION' AND record_id = ?", id);
+        assertNull(mismatch.get("sweep_id"));
+        assertEquals(FOREIGN_HASH, mismatch.get("stored_hash"));
+        assertEquals(recomputed(id), mismatch.get("computed_hash"));
+    }
+
+    @Test
+    void leavesAnchoredRecordsUntouched() {
+        Long id = insertConsultation(PLACEHOLDER_HASH, "tx-deja-ancree");
+
+        hashBackfill.rehashUnanchored();
+
+        assertEquals(PLACEHOLDER_HASH, jdbcTemplate.queryForObject("SELECT hash_contenu FROM consultations WHERE id = ?", String.class, id));
+    }
+
+    private Long insertConsultation(String hash, String txHash) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement("INSERT INTO consultations (dossier_medical_id, professionnel_id, "
+                    + "date_consultation, motif_consultation, diagnostic, hash_contenu, blockchain_txn_hash, date_creation, date_modification) "
+                    + "VALUES ((SELECT MIN(id) FROM dossiers_medicaux), (SELECT MIN(id) FROM professionnels), "
+                    + "TIMESTAMP '2024-03-15 10:15:30.123456', 'Contrôle', 'RAS', ?, ?, NOW(), NOW())", Statement.RETURN_GENERATED_KEYS);
+            statement.setString(1, hash);
+            statement.setString(2, txHash);
+            return statement;
+        }, keys);
+        Long id = ((Number) keys.getKeys().get("id")).longValue();
+        inserted.add(id);
+        return id;
+    }
+
+    private String recomputed(Long id) {
+        return jdbcTemplate.query(AnchoredRecords.select(AnchoredRecordType.CONSULTATION) + " WHERE r.id = ?",
+                rs -> {
+                    rs.next();
+                    return AnchoredRecords.hash(recordHasher, AnchoredRecords.read(AnchoredRecordType.CONSULTATION, rs));
+                }, id);
+    }
+}
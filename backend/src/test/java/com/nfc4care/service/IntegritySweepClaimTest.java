@@ -0,0 +1,90 @@
+package com.nfc4care.service;
+
+import com.nfc4care.PostgresIntegrationTest;
+import com.nfc4care.dto.IntegritySweepStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Réclamation du contrôle d'intégrité en base : un contrôle RUNNING dont le bail est valide
+ * appartient à un autre nœud, un bail expiré peut être repris
+ */
+class IntegritySweepClaimTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private IntegritySweepService integritySweepService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clearSweeps() {
+        jdbcTemplate.update("DELETE FROM integrity_sweeps");
+    }
+
+    @AfterEach
+    void stopLocalSweep() throws InterruptedException {
+        // Le contrôle démarré par ce nœud s'arrête au segment suivant
+        for (int i = 0; i < 300 && integritySweepService.pause(); i++) {
+            Thread.sleep(100);
+        }
+        jdbcTemplate.update("DELETE FROM integrity_sweeps");
+    }
+
+    @Test
+    void refusesASweepWhoseLeaseIsHeldByAnotherNode() {
+        Long sweepId = insertRunningSweep(LocalDateTime.now().minusSeconds(10));
+
+        assertTrue(integritySweepService.start().isEmpty());
+
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT last_id FROM integrity_sweeps WHERE id = ?", Long.class, sweepId));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM integrity_sweeps", Integer.class));
+    }
+
+    @Test
+    void takesOverASweepWhoseLeaseHasExpired() throws InterruptedException {
+        Long sweepId = insertRunningSweep(LocalDateTime.now().minusHours(1));
+
+        Optional<IntegritySweepStatus> started = integritySweepService.start();
+
+        assertTrue(started.isPresent());
+        assertEquals(sweepId, started.get().id());
+        // Chaque point de reprise renouvelle le bail repris : le contrôle va jusqu'au bout
+        String status = IntegritySweepService.RUNNING;
+        for (int i = 0; i < 300 && IntegritySweepService.RUNNING.equals(status); i++) {
+            Thread.sleep(100);
+            status = integritySweepService.latest().orElseThrow().status();
+        }
+        assertEquals(IntegritySweepService.COMPLETED, status);
+    }
+
+    @Test
+    void localRefusalDoesNotKeepTheNodeBusy() {
+        Long sweepId = insertRunningSweep(LocalDateTime.now());
+        assertTrue(integritySweepService.start().isEmpty());
+
+        jdbcTemplate.update("UPDATE integrity_sweeps SET updated_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusHours(1)), sweepId);
+
+        assertEquals(sweepId, integritySweepService.start().orElseThrow().id());
+    }
+
+    // Contrôle démarré par un autre nœud, dernier point de reprise à updatedAt
+    private Long insertRunningSweep(LocalDateTime updatedAt) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO integrity_sweeps (status, record_type, last_id, checked, mismatches, started_at, updated_at) " +
+                "VALUES (?, ?, 0, 0, 0, ?, ?) RETURNING id",
+                Long.class, IntegritySweepService.RUNNING, AnchoredRecordType.values()[0].name(),
+                Timestamp.valueOf(updatedAt.minusHours(2)), Timestamp.valueOf(updatedAt));
+    }
+}
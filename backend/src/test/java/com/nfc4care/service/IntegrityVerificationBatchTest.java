@@ -0,0 +1,120 @@
+package com.nfc4care.service;
+
+import com.nfc4care.PostgresIntegrationTest;
+import com.nfc4care.dto.IntegrityReport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Vérification d'un lot d'enregistrements ancrés dans le registre en mémoire (profil test) :
+ * un résultat par id demandé, quel que soit l'état de l'enregistrement
+ */
+class IntegrityVerificationBatchTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private IntegrityVerificationService integrityVerificationService;
+
+    @Autowired
+    private AnchoringService anchoringService;
+
+    @Autowired
+    private HashBackfill hashBackfill;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> inserted = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        for (Long id : inserted) {
+            jdbcTemplate.update("DELETE FROM anchoring_outbox WHERE record_type = 'CONSULTATION' AND record_id = ?", id);
+            jdbcTemplate.update("DELETE FROM consultations WHERE id = ?", id);
+        }
+    }
+
+    @Test
+    void reportsEveryRequestedIdWithItsState() {
+        Long anchored = insertConsultation("Contrôle");
+        Long tampered = insertConsultation("Contrôle");
+        anchoringService.enqueueUnanchored();
+        anchoringService.drain();
+        // Modification directe en base, sans nouvelle empreinte
+        jdbcTemplate.update("UPDATE consultations SET diagnostic = 'Diagnostic modifié' WHERE id = ?", tampered);
+        Long unanchored = insertConsultation("Contrôle");
+        hashBackfill.rehashUnanchored();
+        Long missing = jdbcTemplate.queryForObject("SELECT MAX(id) + 1000 FROM consultations", Long.class);
+
+        Map<Long, IntegrityReport> reports = verifyAll(List.of(anchored, tampered, unanchored, missing, anchored));
+
+        assertEquals(4, reports.size(), "un résultat par id distinct");
+
+        IntegrityReport anchoredReport = reports.get(anchored);
+        assertTrue(anchoredReport.valid());
+        assertNotNull(anchoredReport.blockchainTxnHash());
+
+        IntegrityReport tamperedReport = reports.get(tampered);
+        assertTrue(tamperedReport.found());
+        assertFalse(tamperedReport.contentMatches());
+        assertTrue(tamperedReport.anchored(), "l'empreinte stockée reste incluse dans la racine ancrée");
+        assertFalse(tamperedReport.valid());
+
+        IntegrityReport unanchoredReport = reports.get(unanchored);
+        assertTrue(unanchoredReport.contentMatches());
+        assertFalse(unanchoredReport.anchored());
+        assertNull(unanchoredReport.blockchainTxnHash());
+
+        IntegrityReport missingReport = reports.get(missing);
+        assertFalse(missingReport.found());
+        assertFalse(missingReport.valid());
+    }
+
+    @Test
+    void verifiesRecordsAnchoredInDistinctTransactions() {
+        Long first = insertConsultation("Premier lot");
+        anchoringService.enqueueUnanchored();
+        anchoringService.drain();
+        Long second = insertConsultation("Second lot");
+        anchoringService.enqueueUnanchored();
+        anchoringService.drain();
+
+        Map<Long, IntegrityReport> reports = verifyAll(List.of(first, second));
+
+        assertNotEquals(reports.get(first).blockchainTxnHash(), reports.get(second).blockchainTxnHash());
+        assertTrue(reports.get(first).valid());
+        assertTrue(reports.get(second).valid());
+    }
+
+    private Map<Long, IntegrityReport> verifyAll(List<Long> ids) {
+        List<IntegrityReport> reports = integrityVerificationService.verifyAll(AnchoredRecordType.CONSULTATION, ids)
+                .collectList()
+                .block();
+        assertNotNull(reports);
+        reports.forEach(report -> assertEquals(AnchoredRecordType.CONSULTATION.name(), report.type()));
+        return reports.stream().collect(Collectors.toMap(IntegrityReport::id, Function.identity()));
+    }
+
+    private Long insertConsultation(String motif) {
+        Long id = jdbcTemplate.queryForObject("INSERT INTO consultations (dossier_medical_id, professionnel_id, "
+                + "date_consultation, motif_consultation, diagnostic, hash_contenu, date_creation, date_modification) "
+                + "VALUES ((SELECT MIN(id) FROM dossiers_medicaux), (SELECT MIN(id) FROM professionnels), NOW(), ?, "
+                + "'RAS', repeat('0', 64), NOW(), NOW()) RETURNING id", Long.class, motif);
+        inserted.add(id);
+        return id;
+    }
+}
@@ -0,0 +1,101 @@
+package com.nfc4care.service;
+
+import com.nfc4care.entity.Token;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cluster mixte pendant une migration session → stateless : chaque nœud accepte les deux sortes de tokens
+ */
+class JwtServiceTest {
+
+    private static final String SECRET = "nfc4care-super-secret-jwt-key-2024-very-long-and-secure";
+
+    private final TokenService tokenService = mock(TokenService.class);
+    private final AccessTokenRevocationList revocationList = new AccessTokenRevocationList();
+    private final UserDetails user = User.withUsername("doctor@example.com").password("inutilise").roles("MEDECIN").build();
+
+    @Test
+    void sessionNodeAcceptsAccessTokenWithoutDatabaseLookup() {
+        String accessToken = jwtService("stateless").issueTokens(user, "test", "127.0.0.1").accessToken();
+
+        JwtService sessionNode = jwtService("session");
+
+        assertTrue(sessionNode.isTokenValid(accessToken, user));
+        verify(tokenService, never()).isTokenValid(anyString(), any());
+    }
+
+    @Test
+    void statelessNodeChecksSessionTokenInDatabase() {
+        String sessionToken = jwtService("session").issueTokens(user, "test", "127.0.0.1").accessToken();
+        when(tokenService.isTokenValid(eq(sessionToken), any())).thenReturn(true);
+
+        JwtService statelessNode = jwtService("stateless");
+
+        assertTrue(statelessNode.isTokenValid(sessionToken, user));
+        verify(tokenService).isTokenValid(eq(sessionToken), any());
+    }
+
+    @Test
+    void refreshTokenIsNotAcceptedAsBearerToken() {
+        String refreshToken = jwtService("stateless").issueTokens(user, "test", "127.0.0.1").refreshToken();
+
+        assertFalse(jwtService("stateless").isTokenValid(refreshToken, user));
+        assertFalse(jwtService("session").isTokenValid(refreshToken, user));
+    }
+
+    @Test
+    void logoutRevokesOnlyTheRefreshTokenOfTheSameSession() {
+        JwtService service = jwtService("stateless");
+        IssuedTokens laptop = service.issueTokens(user, "portable", "127.0.0.1");
+        IssuedTokens tablet = service.issueTokens(user, "tablette", "127.0.0.2");
+        when(tokenService.getValidTokensByUser(user.getUsername()))
+                .thenReturn(List.of(stored(laptop.refreshToken()), stored(tablet.refreshToken())));
+
+        service.revokeToken(laptop.accessToken());
+
+        assertFalse(service.isTokenValid(laptop.accessToken(), user));
+        assertTrue(service.isTokenValid(tablet.accessToken(), user));
+        verify(tokenService).revokeToken(laptop.refreshToken());
+        verify(tokenService, never()).revokeToken(tablet.refreshToken());
+        verify(tokenService, never()).revokeAllUserTokens(anyString());
+    }
+
+    @Test
+    void logoutWithSessionTokenRevokesItInDatabase() {
+        JwtService service = jwtService("stateless");
+        String sessionToken = jwtService("session").issueTokens(user, "test", "127.0.0.1").accessToken();
+
+        service.revokeToken(sessionToken);
+
+        verify(tokenService).revokeToken(sessionToken);
+    }
+
+    private JwtService jwtService(String mode) {
+        JwtService service = new JwtService(tokenService, revocationList);
+        ReflectionTestUtils.setField(service, "secretKey", SECRET);
+        ReflectionTestUtils.setField(service, "jwtExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(service, "accessTokenExpiration", 900_000L);
+        ReflectionTestUtils.setField(service, "mode", mode);
+        service.init();
+        return service;
+    }
+
+    private static Token stored(String tokenValue) {
+        return Token.builder().tokenValue(tokenValue).userEmail("doctor@example.com").build();
+    }
+}
@@ -0,0 +1,103 @@
+package com.nfc4care.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût de l'authentification JWT d'une requête, avant et après la vérification unique par requête :
+ * <ul>
+ *     <li>{@code perCallParser} : ancien chemin du filtre, trois lectures du token (sujet, validité, expiration),
+ *     chacune avec un parser et une clé HMAC reconstruits ;</li>
+ *     <li>{@code verifiedOncePerRequest} : mêmes lectures via {@link JwtService} (mode stateless),
+ *     parser et clé construits au démarrage, claims partagés par l'attribut de requête.</li>
+ * </ul>
+ * Lancement : {@code mvn test-compile} puis {@code JwtVerificationBenchmark#main} depuis l'IDE,
+ * ou {@code java -cp target/test-classes:target/classes:<classpath de test> org.openjdk.jmh.Main JwtVerificationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "nfc4care-super-secret-jwt-key-2024-very-long-and-secure";
+
+    private JwtService jwtService;
+    private UserDetails user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(null, new AccessTokenRevocationList());
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 900_000L);
+        ReflectionTestUtils.setField(jwtService, "mode", "stateless");
+        jwtService.init();
+
+        user = User.withUsername("doctor@example.com").password("inutilise").roles("MEDECIN").build();
+        // Access token tel qu'émis à la connexion (l'enregistrement du refresh token n'intervient pas ici)
+        token = ReflectionTestUtils.invokeMethod(jwtService, "buildAccessToken", user.getUsername(), UUID.randomUUID().toString());
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public void perCallParser(Blackhole blackhole) {
+        blackhole.consume(parseWithNewParser(token).getSubject());
+        Claims claims = parseWithNewParser(token);
+        blackhole.consume(claims.getExpiration().before(new Date()));
+        blackhole.consume(parseWithNewParser(token).getExpiration());
+    }
+
+    @Benchmark
+    public void verifiedOncePerRequest(Blackhole blackhole) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        blackhole.consume(jwtService.extractUsername(token));
+        blackhole.consume(jwtService.isTokenValid(token, user));
+        blackhole.consume(jwtService.extractExpiration(token));
+    }
+
+    private static Claims parseWithNewParser(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtVerificationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
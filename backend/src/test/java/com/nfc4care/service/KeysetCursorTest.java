@@ -0,0 +1,63 @@
+package com.nfc4care.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeysetCursorTest {
+
+    @Test
+    void decodesWhatWasEncoded() {
+        String[] values = {"Lefèvre", "François", "2024-03-15T10:15:30.123456", "42"};
+
+        String cursor = KeysetCursor.encode(values);
+
+        assertArrayEquals(values, KeysetCursor.decode(cursor, values.length));
+    }
+
+    @Test
+    void keepsEmptyValues() {
+        String[] values = {"", "Martin", ""};
+
+        assertArrayEquals(values, KeysetCursor.decode(KeysetCursor.encode(values), 3));
+    }
+
+    @Test
+    void cursorIsUrlSafe() {
+        String cursor = KeysetCursor.encode("???>>>", "ÿÿÿ", "1");
+
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"), cursor);
+    }
+
+    @Test
+    void rejectsCursorWithAnotherNumberOfValues() {
+        String cursor = KeysetCursor.encode("Martin", "Claire", "5");
+
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(cursor, 2));
+    }
+
+    @Test
+    void rejectsCursorThatIsNotBase64() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("pas un curseur!", 1));
+    }
+
+    @Test
+    void rejectsMalformedDateCreationAsAnInvalidCursor() {
+        String[] values = KeysetCursor.decode(KeysetCursor.encode("DATE_CREATION", "hier", "42"), 3);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> KeysetCursor.parseDateTime(values[1]));
+        assertEquals("Curseur invalide", e.getMessage());
+    }
+
+    @Test
+    void parsesDateCreationWrittenByTheEncoder() {
+        LocalDateTime dateCreation = LocalDateTime.of(2024, 3, 15, 10, 15, 30, 123_456_000);
+
+        assertEquals(dateCreation, KeysetCursor.parseDateTime(dateCreation.toString()));
+    }
+}
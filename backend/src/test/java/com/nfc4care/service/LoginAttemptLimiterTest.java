@@ -0,0 +1,95 @@
+package com.nfc4care.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoginAttemptLimiterTest {
+
+    private static final int MAX_PER_EMAIL = 5;
+    private static final int MAX_PER_IP = 50;
+
+    @Test
+    void rejectsAnEmailAfterTooManyFailures() {
+        LoginAttemptLimiter limiter = limiter(65536, 300_000);
+        fail(limiter, "doctor@example.com", MAX_PER_EMAIL - 1);
+        assertDoesNotThrow(() -> limiter.checkAllowed("doctor@example.com", "10.0.0.1"));
+
+        fail(limiter, "doctor@example.com", 1);
+
+        assertThrows(LoginThrottledException.class, () -> limiter.checkAllowed("DOCTOR@example.com ", "10.0.0.2"));
+    }
+
+    @Test
+    void rejectsAnAddressAfterTooManyFailures() {
+        LoginAttemptLimiter limiter = limiter(65536, 300_000);
+        for (int i = 0; i < MAX_PER_IP; i++) {
+            limiter.recordFailure("user-" + i + "@example.com", "10.0.0.1");
+        }
+
+        assertThrows(LoginThrottledException.class, () -> limiter.checkAllowed("autre@example.com", "10.0.0.1"));
+        assertDoesNotThrow(() -> limiter.checkAllowed("autre@example.com", "10.0.0.2"));
+    }
+
+    @Test
+    void successClearsTheFailuresOfTheSameEmail() {
+        LoginAttemptLimiter limiter = limiter(65536, 300_000);
+        fail(limiter, "doctor@example.com", MAX_PER_EMAIL - 1);
+
+        limiter.recordSuccess("doctor@example.com");
+        fail(limiter, "doctor@example.com", MAX_PER_EMAIL - 1);
+
+        assertDoesNotThrow(() -> limiter.checkAllowed("doctor@example.com", "10.0.0.1"));
+    }
+
+    @Test
+    void successDoesNotClearFailuresOfAnotherEmailInTheSameSlot() {
+        // Deux emplacements seulement : deux emails de même emplacement sont faciles à trouver
+        LoginAttemptLimiter limiter = limiter(2, 300_000);
+        String attacked = "victime@example.com";
+        String attacker = collidingEmail(limiter, attacked);
+
+        fail(limiter, attacked, MAX_PER_EMAIL);
+        limiter.recordSuccess(attacker);
+
+        assertThrows(LoginThrottledException.class, () -> limiter.checkAllowed(attacked, "10.0.0.1"));
+    }
+
+    @Test
+    void failuresExpireWithTheWindow() throws InterruptedException {
+        LoginAttemptLimiter limiter = limiter(65536, 200);
+        fail(limiter, "doctor@example.com", MAX_PER_EMAIL);
+        assertThrows(LoginThrottledException.class, () -> limiter.checkAllowed("doctor@example.com", "10.0.0.1"));
+
+        // Deux fenêtres plus tard, la fenêtre précédente ne compte plus
+        Thread.sleep(450);
+
+        assertDoesNotThrow(() -> limiter.checkAllowed("doctor@example.com", "10.0.0.1"));
+    }
+
+    private static LoginAttemptLimiter limiter(int slots, long windowMillis) {
+        return new LoginAttemptLimiter(new SimpleMeterRegistry(), slots, windowMillis, MAX_PER_EMAIL, MAX_PER_IP);
+    }
+
+    private static void fail(LoginAttemptLimiter limiter, String email, int times) {
+        for (int i = 0; i < times; i++) {
+            limiter.recordFailure(email, "10.0.0." + (i + 100));
+        }
+    }
+
+    private static String collidingEmail(LoginAttemptLimiter limiter, String email) {
+        int slot = ReflectionTestUtils.invokeMethod(limiter, "slot", email);
+        for (int i = 0; ; i++) {
+            String candidate = "autre-" + i + "@example.com";
+            int candidateSlot = ReflectionTestUtils.invokeMethod(limiter, "slot", candidate);
+            if (candidateSlot == slot) {
+                assertNotEquals(email, candidate);
+                return candidate;
+            }
+        }
+    }
+}
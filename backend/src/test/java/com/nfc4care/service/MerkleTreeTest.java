@@ -0,0 +1,72 @@
+package com.nfc4care.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MerkleTreeTest {
+
+    @ParameterizedTest
+    // Puissances de deux et 2^n + 1 : un nœud sans frère remonte sur plusieurs niveaux
+    @ValueSource(ints = {1, 2, 3, 4, 5, 8, 9, 17, 33})
+    void everyProofLeadsBackToTheRoot(int leaves) {
+        List<String> values = values(leaves);
+
+        MerkleTree.Result tree = MerkleTree.build(values);
+
+        assertEquals(leaves, tree.proofs().size());
+        for (int i = 0; i < leaves; i++) {
+            assertEquals(tree.root(), MerkleTree.rootFromProof(values.get(i), tree.proofs().get(i)), "feuille " + i);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 5, 9})
+    void proofDoesNotFitAnotherValue(int leaves) {
+        List<String> values = values(leaves);
+
+        MerkleTree.Result tree = MerkleTree.build(values);
+
+        assertNotEquals(tree.root(), MerkleTree.rootFromProof("empreinte-modifiee", tree.proofs().get(leaves - 1)));
+    }
+
+    @Test
+    void singleLeafHasAnEmptyProof() {
+        MerkleTree.Result tree = MerkleTree.build(List.of("a"));
+
+        assertEquals("", tree.proofs().get(0));
+        assertEquals(tree.root(), MerkleTree.rootFromProof("a", ""));
+    }
+
+    @Test
+    void rootDependsOnLeafOrder() {
+        assertNotEquals(MerkleTree.build(List.of("a", "b")).root(), MerkleTree.build(List.of("b", "a")).root());
+    }
+
+    @Test
+    void leafIsNotMistakenForANode() {
+        // Sans préfixes, la racine de [a, b] serait aussi la feuille de la concaténation des deux empreintes
+        MerkleTree.Result pair = MerkleTree.build(List.of("a", "b"));
+        String siblings = pair.proofs().get(0).substring(1);
+
+        assertNotEquals(pair.root(), MerkleTree.build(List.of(siblings)).root());
+    }
+
+    @Test
+    void rejectsMalformedProofs() {
+        assertThrows(IllegalArgumentException.class, () -> MerkleTree.build(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> MerkleTree.rootFromProof("a", "x00"));
+        assertThrows(IllegalArgumentException.class, () -> MerkleTree.rootFromProof("a", "l"));
+    }
+
+    private static List<String> values(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "empreinte-" + i).toList();
+    }
+}
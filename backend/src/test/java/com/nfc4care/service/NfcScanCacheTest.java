@@ -0,0 +1,78 @@
+package com.nfc4care.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.nfc4care.entity.Patient;
+import com.nfc4care.repository.PatientRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Une correspondance carte → patient préchargée n'est pas reprise sans relecture au-delà du TTL des réponses
+ */
+class NfcScanCacheTest {
+
+    private static final String NFC = "nfc-001-sophie";
+    private static final long TTL_MILLIS = 100;
+
+    private final PatientRepository patientRepository = mock(PatientRepository.class);
+    private final NfcScanCache cache = new NfcScanCache(patientRepository,
+            new ObjectMapper().registerModule(new JavaTimeModule()), new SimpleMeterRegistry(), 100, TTL_MILLIS);
+
+    @Test
+    void deactivatedPatientIsNoLongerResolvedByCard() {
+        warmUpWith(1L);
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(patient(1L, NFC, false)));
+
+        assertTrue(cache.patientIdFor(NFC).isEmpty());
+    }
+
+    @Test
+    void reassignedCardResolvesToItsNewPatient() {
+        warmUpWith(1L);
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(patient(1L, "nfc-autre", true)));
+        when(patientRepository.findByNumeroNFC(NFC)).thenReturn(Optional.of(patient(2L, NFC, true)));
+
+        assertEquals(Optional.of(2L), cache.patientIdFor(NFC));
+    }
+
+    @Test
+    void mappingIsRecheckedOnceTheResponseExpired() throws InterruptedException {
+        warmUpWith(1L);
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(patient(1L, NFC, true)));
+
+        assertEquals(Optional.of(1L), cache.patientIdFor(NFC));
+        assertEquals(Optional.of(1L), cache.patientIdFor(NFC));
+        verify(patientRepository, times(1)).findById(1L);
+
+        Thread.sleep(2 * TTL_MILLIS);
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(patient(1L, NFC, false)));
+
+        assertTrue(cache.patientIdFor(NFC).isEmpty());
+    }
+
+    private void warmUpWith(Long patientId) {
+        when(patientRepository.findActiveNfcMappings()).thenReturn(List.<Object[]>of(new Object[]{NFC, patientId}));
+        cache.warmUp();
+    }
+
+    private static Patient patient(Long id, String numeroNFC, boolean actif) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        patient.setNom("Laurent");
+        patient.setPrenom("Sophie");
+        patient.setNumeroNFC(numeroNFC);
+        patient.setActif(actif);
+        return patient;
+    }
+}
@@ -0,0 +1,97 @@
+package com.nfc4care.service;
+
+import com.nfc4care.entity.Consultation;
+import com.nfc4care.entity.DossierMedical;
+import com.nfc4care.entity.Professionnel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût de l'empreinte d'une consultation :
+ * <ul>
+ *     <li>{@code perCallDigest} : ancienne routine appliquée aux mêmes champs, digest obtenu à chaque appel,
+ *     chaîne concaténée puis {@code getBytes}, hexadécimal par {@code Integer.toHexString} ;</li>
+ *     <li>{@code recordHasher} : encodage canonique v1 écrit directement dans le digest réutilisé du thread.</li>
+ * </ul>
+ * Lancement : {@code mvn test-compile} puis {@code RecordHasherBenchmark#main} depuis l'IDE,
+ * ou {@code java -cp target/test-classes:target/classes:<classpath de test> org.openjdk.jmh.Main RecordHasherBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordHasherBenchmark {
+
+    private RecordHasher recordHasher;
+    private Consultation consultation;
+
+    @Setup
+    public void setUp() {
+        recordHasher = new RecordHasher();
+
+        DossierMedical dossierMedical = new DossierMedical();
+        dossierMedical.setId(42L);
+        Professionnel professionnel = new Professionnel();
+        professionnel.setId(3L);
+        consultation = new Consultation();
+        consultation.setDossierMedical(dossierMedical);
+        consultation.setProfessionnel(professionnel);
+        consultation.setDateConsultation(LocalDateTime.of(2024, 3, 15, 10, 15, 30, 123_456_000));
+        consultation.setMotifConsultation("Douleurs lombaires persistantes");
+        consultation.setExamenClinique("Douleur à la palpation L4-L5, limitation de la flexion");
+        consultation.setDiagnostic("Lombalgie chronique mécanique");
+        consultation.setTraitementPrescrit("Kinésithérapie 10 séances, Paracétamol 1g 3x/j");
+        consultation.setOrdonnance("Paracétamol 500mg - 1 comprimé 3 fois par jour pendant 7 jours");
+        consultation.setObservations("Amélioration des douleurs, poursuite de la kinésithérapie");
+        consultation.setProchainRdv(LocalDateTime.of(2024, 4, 15, 9, 0));
+    }
+
+    @Benchmark
+    public String perCallDigest() throws NoSuchAlgorithmException {
+        // Mêmes champs que l'encodage v1, concaténés sans séparateur comme l'ancienne routine
+        String content = consultation.getDossierMedical().getId() + "" + consultation.getProfessionnel().getId()
+                + consultation.getDateConsultation() + consultation.getMotifConsultation() + consultation.getExamenClinique()
+                + consultation.getDiagnostic() + consultation.getTraitementPrescrit() + consultation.getOrdonnance()
+                + consultation.getObservations() + consultation.getProchainRdv();
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] hash = digest.digest(content.getBytes(StandardCharsets.UTF_8));
+
+        StringBuilder hexString = new StringBuilder();
+        for (byte b : hash) {
+            String hex = Integer.toHexString(0xff & b);
+            if (hex.length() == 1) {
+                hexString.append('0');
+            }
+            hexString.append(hex);
+        }
+        return hexString.toString();
+    }
+
+    @Benchmark
+    public String recordHasher() {
+        return recordHasher.hash(consultation);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RecordHasherBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,96 @@
+package com.nfc4care.service;
+
+import com.nfc4care.entity.Consultation;
+import com.nfc4care.entity.DossierMedical;
+import com.nfc4care.entity.Patient;
+import com.nfc4care.entity.Professionnel;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Empreintes de référence de l'encodage v1 : elles ne doivent changer ni d'une JVM à l'autre
+ * (jeu de caractères par défaut, locale) ni d'une version à l'autre sans nouvelle étiquette
+ */
+class RecordHasherTest {
+
+    private final RecordHasher hasher = new RecordHasher();
+
+    @Test
+    void consultationGoldenHash() {
+        assertEquals("9c74385245a498e98e138f2195cf3b6e1f5e6e9dd481462e64ad80c34c12340e", hasher.hash(consultation()));
+    }
+
+    @Test
+    void dossierMedicalGoldenHash() {
+        Patient patient = new Patient();
+        patient.setId(1L);
+        DossierMedical dossierMedical = new DossierMedical();
+        dossierMedical.setPatient(patient);
+        dossierMedical.setAntecedentsMedicaux("Asthme");
+        dossierMedical.setAllergies("Pénicilline (Modérée)");
+        dossierMedical.setProfessionnelCreation(professionnel(3L));
+
+        assertEquals("ad84bbfce1e1feaa118fc63a8f6251ed6d35f3543ca9f56033cd894d7d980e65", hasher.hash(dossierMedical));
+    }
+
+    @Test
+    void textGoldenHashes() {
+        // Caractères sur 2, 3 et 4 octets UTF-8
+        assertEquals("d170fb49da20a856cab1224267b58ff73305dbd0005a603512b8761446160e06",
+                hasher.hash("Ordonnance : Ventoline 100µg 😷"));
+        assertEquals("ad9996f7938d1775d59d1af7f904a50d9efe880d91ca16ea939d7dc120149392", hasher.hash(""));
+        assertEquals("cfd50f7adc26b663de0b453e19df6356fe7d81dc8f9e7d16916c84f6a898e29e", hasher.hash((String) null));
+    }
+
+    @Test
+    void fieldBoundariesAreUnambiguous() {
+        Consultation first = consultation();
+        first.setMotifConsultation("ab");
+        first.setExamenClinique("c");
+        Consultation second = consultation();
+        second.setMotifConsultation("a");
+        second.setExamenClinique("bc");
+
+        assertNotEquals(hasher.hash(first), hasher.hash(second));
+    }
+
+    @Test
+    void datesAreTruncatedToPostgresPrecision() {
+        Consultation stored = consultation();
+        stored.setDateConsultation(LocalDateTime.of(2024, 3, 15, 10, 15, 30, 123_456_000));
+
+        assertEquals(hasher.hash(consultation()), hasher.hash(stored));
+    }
+
+    @Test
+    void hexEncodingIsLowerCaseAndZeroPadded() {
+        assertEquals("000f10ff", RecordHasher.toHex(new byte[]{0x00, 0x0f, 0x10, (byte) 0xff}));
+    }
+
+    private static Consultation consultation() {
+        DossierMedical dossierMedical = new DossierMedical();
+        dossierMedical.setId(7L);
+        Consultation consultation = new Consultation();
+        consultation.setDossierMedical(dossierMedical);
+        consultation.setProfessionnel(professionnel(3L));
+        consultation.setDateConsultation(LocalDateTime.of(2024, 3, 15, 10, 15, 30, 123_456_789));
+        consultation.setMotifConsultation("Douleurs lombaires persistantes");
+        consultation.setExamenClinique("Douleur à la palpation L4-L5");
+        consultation.setDiagnostic("Lombalgie chronique mécanique");
+        consultation.setTraitementPrescrit("Kinésithérapie 10 séances");
+        consultation.setOrdonnance(null);
+        consultation.setObservations("");
+        consultation.setProchainRdv(LocalDateTime.of(2024, 4, 15, 9, 0));
+        return consultation;
+    }
+
+    private static Professionnel professionnel(Long id) {
+        Professionnel professionnel = new Professionnel();
+        professionnel.setId(id);
+        return professionnel;
+    }
+}
@@ -0,0 +1,42 @@
+package com.nfc4care.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    @Test
+    void allowsABurstUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 0.001);
+
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    void refillsAtTheConfiguredRate() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 20);
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+
+        // 20 jetons par seconde : un jeton toutes les 50 ms
+        Thread.sleep(120);
+
+        assertTrue(bucket.tryAcquire());
+    }
+
+    @Test
+    void neverHoldsMoreThanItsCapacity() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(2, 1000);
+        Thread.sleep(50);
+
+        assertTrue(bucket.availableTokens() <= 2);
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+}
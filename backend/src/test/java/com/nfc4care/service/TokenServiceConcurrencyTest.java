@@ -0,0 +1,82 @@
+package com.nfc4care.service;
+
+import com.nfc4care.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TokenServiceConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final int LOGINS = 16;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void parallelLoginsOfTheSameUserLeaveExactlyOneActiveToken() throws Exception {
+        String email = "concurrence-" + UUID.randomUUID() + "@example.com";
+        UserDetails user = User.withUsername(email).password("inutilise").roles("MEDECIN").build();
+
+        ExecutorService logins = Executors.newFixedThreadPool(LOGINS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> tokens = new ArrayList<>();
+        try {
+            for (int i = 0; i < LOGINS; i++) {
+                tokens.add(logins.submit(() -> {
+                    start.await();
+                    return jwtService.generateAndSaveToken(user, "test", "127.0.0.1");
+                }));
+            }
+            start.countDown();
+            // Aucune connexion ne doit échouer
+            for (Future<String> token : tokens) {
+                token.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            logins.shutdownNow();
+        }
+
+        assertEquals(1, tokenService.countValidTokensByUser(email));
+        assertEquals(LOGINS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM tokens WHERE user_email = ?", Integer.class, email));
+    }
+
+    @Test
+    void databaseRejectsASecondActiveTokenForTheSameUser() {
+        String email = "index-" + UUID.randomUUID() + "@example.com";
+        insertActiveToken(email);
+
+        assertThrows(DataIntegrityViolationException.class, () -> insertActiveToken(email));
+    }
+
+    private void insertActiveToken(String email) {
+        jdbcTemplate.update(
+                "INSERT INTO tokens (token_value, user_email, created_at, expires_at, revoked, expired) " +
+                "VALUES (?, ?, ?, ?, FALSE, FALSE)",
+                UUID.randomUUID().toString(), email,
+                Timestamp.valueOf(LocalDateTime.now()), Timestamp.valueOf(LocalDateTime.now().plusHours(1)));
+    }
+}
@@ -0,0 +1,63 @@
+package com.nfc4care.service;
+
+import com.nfc4care.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Test
+    void revokedTokenIsNoLongerServedFromTheValidityCache() {
+        String email = "revocation-" + UUID.randomUUID() + "@example.com";
+        String tokenValue = UUID.randomUUID().toString();
+        tokenService.saveToken(tokenValue, email, LocalDateTime.now().plusHours(1), "test", "127.0.0.1");
+
+        // Première lecture : le résultat valide est mis en cache
+        assertTrue(tokenService.isTokenValid(tokenValue));
+        assertTrue(tokenService.isTokenValid(tokenValue));
+
+        tokenService.revokeToken(tokenValue);
+
+        assertFalse(tokenService.isTokenValid(tokenValue));
+    }
+
+    @Test
+    void refreshWithATokenRevokedByALoginElsewhereKeepsTheOtherSession() {
+        String email = "deux-appareils-" + UUID.randomUUID() + "@example.com";
+        String laptop = UUID.randomUUID().toString();
+        String tablet = UUID.randomUUID().toString();
+        tokenService.saveToken(laptop, email, LocalDateTime.now().plusHours(1), "laptop", "127.0.0.1");
+        // La connexion sur la tablette révoque le refresh token du portable
+        tokenService.saveToken(tablet, email, LocalDateTime.now().plusHours(1), "tablet", "127.0.0.2");
+
+        assertThrows(RuntimeException.class, () -> tokenService.rotateRefreshToken(laptop, UUID.randomUUID().toString(),
+                email, LocalDateTime.now().plusHours(1), "laptop", "127.0.0.1"));
+
+        assertTrue(tokenService.isTokenValid(tablet));
+    }
+
+    @Test
+    void reuseOfARotatedRefreshTokenRevokesEverySession() {
+        String email = "reutilisation-" + UUID.randomUUID() + "@example.com";
+        String first = UUID.randomUUID().toString();
+        String second = UUID.randomUUID().toString();
+        tokenService.saveToken(first, email, LocalDateTime.now().plusHours(1), "test", "127.0.0.1");
+        tokenService.rotateRefreshToken(first, second, email, LocalDateTime.now().plusHours(1), "test", "127.0.0.1");
+        assertTrue(tokenService.isTokenValid(second));
+
+        assertThrows(RuntimeException.class, () -> tokenService.rotateRefreshToken(first, UUID.randomUUID().toString(),
+                email, LocalDateTime.now().plusHours(1), "attaquant", "10.0.0.66"));
+
+        assertFalse(tokenService.isTokenValid(second));
+    }
+}
@@ -0,0 +1,49 @@
+package com.nfc4care.simulator;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Démarre le registre simulé dans le processus de l'application (profil {@code simulator}, classpath de test),
+ * pour mesurer ancrage et vérification sans clé Blockfrost. {@code blockfrost.api.base-url} doit pointer vers son port.
+ */
+@Component
+@ConditionalOnProperty(name = "nfc4care.ledger-simulator.enabled", havingValue = "true")
+@Slf4j
+public class EmbeddedLedgerSimulator {
+
+    private final LedgerSimulator simulator;
+
+    public EmbeddedLedgerSimulator(
+            @Value("${nfc4care.ledger-simulator.port:8099}") int port,
+            @Value("${nfc4care.ledger-simulator.latency:constant:50}") String latency,
+            @Value("${nfc4care.ledger-simulator.error-rate:0}") double errorRate,
+            @Value("${nfc4care.ledger-simulator.confirmation-delay:0}") long confirmationDelayMillis,
+            @Value("${nfc4care.ledger-simulator.rate-limit.requests-per-second:1000}") double requestsPerSecond,
+            @Value("${nfc4care.ledger-simulator.rate-limit.burst:1000}") long burst
+    ) {
+        LedgerSimulator.Config config = new LedgerSimulator.Config(port, LedgerSimulator.LatencyDistribution.parse(latency),
+                errorRate, confirmationDelayMillis, requestsPerSecond, burst);
+        try {
+            this.simulator = LedgerSimulator.start(config);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de démarrer le registre simulé sur le port " + port, e);
+        }
+        log.info("Registre blockchain simulé démarré sur {} ({})", simulator.baseUrl(), config);
+    }
+
+    public String baseUrl() {
+        return simulator.baseUrl();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        simulator.close();
+    }
+}
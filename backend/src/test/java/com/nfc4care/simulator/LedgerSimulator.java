@@ -0,0 +1,260 @@
+package com.nfc4care.simulator;
+
+import com.nfc4care.service.TokenBucket;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Registre blockchain simulé, compatible avec les appels de {@code CardanoService} :
+ * {@code POST /tx/submit} et {@code GET /tx/{hash}/metadata}.
+ *
+ * Le registre est en mémoire. Latence, taux d'erreur, délai de confirmation et quota sont configurables,
+ * pour mesurer le débit d'ancrage et la latence de vérification sans clé Blockfrost.
+ * Utilisable intégré ({@link #start(Config)}, voir {@code EmbeddedLedgerSimulator}) ou seul :
+ * <pre>
+ * java -cp target/test-classes:target/classes com.nfc4care.simulator.LedgerSimulator --port=8099 --latency=lognormal:80:0.5 \
+ *      --error-rate=0.01 --confirmation-delay=20000 --requests-per-second=10 --burst=500
+ * </pre>
+ * {@code GET /stats} retourne les compteurs de la simulation.
+ */
+public final class LedgerSimulator implements AutoCloseable {
+
+    private static final Pattern METADATA_PATH = Pattern.compile("^/tx/([0-9a-f]{64})/metadata$");
+
+    private final Config config;
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final ScheduledExecutorService delays;
+    private final TokenBucket quota;
+    private final Map<String, Transaction> transactions = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+
+    private LedgerSimulator(Config config) throws IOException {
+        this.config = config;
+        this.quota = new TokenBucket(config.burst(), config.requestsPerSecond());
+        this.handlers = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        this.delays = Executors.newScheduledThreadPool(2);
+        this.server = HttpServer.create(new InetSocketAddress(config.port()), 512);
+        server.setExecutor(handlers);
+        server.createContext("/tx/submit", this::submit);
+        server.createContext("/tx/", this::metadata);
+        server.createContext("/stats", this::stats);
+        server.start();
+    }
+
+    public static LedgerSimulator start(Config config) throws IOException {
+        return new LedgerSimulator(config);
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private void submit(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, "{\"error\":\"method not allowed\"}");
+            return;
+        }
+        byte[] body;
+        try (InputStream input = exchange.getRequestBody()) {
+            body = input.readAllBytes();
+        }
+        handle(exchange, () -> {
+            String hash = transactionHash(body);
+            long confirmedAt = System.currentTimeMillis() + config.confirmationDelayMillis();
+            transactions.put(hash, new Transaction(new String(body, StandardCharsets.UTF_8), confirmedAt));
+            submitted.incrementAndGet();
+            return new Response(200, "{\"tx_hash\":\"" + hash + "\"}");
+        });
+    }
+
+    private void metadata(HttpExchange exchange) throws IOException {
+        Matcher matcher = METADATA_PATH.matcher(exchange.getRequestURI().getPath());
+        if (!"GET".equals(exchange.getRequestMethod()) || !matcher.matches()) {
+            respond(exchange, 404, "{\"error\":\"not found\"}");
+            return;
+        }
+        String hash = matcher.group(1);
+        handle(exchange, () -> {
+            lookups.incrementAndGet();
+            Transaction transaction = transactions.get(hash);
+            // Une transaction non encore confirmée n'a pas de métadonnées visibles
+            if (transaction == null || transaction.confirmedAt() > System.currentTimeMillis()) {
+                return new Response(404, "{\"error\":\"not found\"}");
+            }
+            return new Response(200, transaction.metadata());
+        });
+    }
+
+    private void stats(HttpExchange exchange) throws IOException {
+        respond(exchange, 200, String.format(
+                "{\"transactions\":%d,\"submitted\":%d,\"lookups\":%d,\"throttled\":%d,\"injected_errors\":%d}",
+                transactions.size(), submitted.get(), lookups.get(), throttled.get(), injectedErrors.get()));
+    }
+
+    /**
+     * Applique quota et erreurs injectées, puis répond après une latence tirée de la distribution,
+     * sans bloquer de thread pendant l'attente
+     */
+    private void handle(HttpExchange exchange, ResponseSupplier action) {
+        Response response;
+        if (!quota.tryAcquire()) {
+            throttled.incrementAndGet();
+            response = new Response(429, "{\"error\":\"usage limit reached\"}");
+        } else if (ThreadLocalRandom.current().nextDouble() < config.errorRate()) {
+            injectedErrors.incrementAndGet();
+            response = new Response(500, "{\"error\":\"simulated failure\"}");
+        } else {
+            response = action.get();
+        }
+        Response finalResponse = response;
+        delays.schedule(() -> {
+            try {
+                respond(exchange, finalResponse.status(), finalResponse.body());
+            } catch (IOException e) {
+                exchange.close();
+            }
+        }, config.latency().sampleMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private String transactionHash(byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(Long.toString(sequence.incrementAndGet()).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        delays.shutdownNow();
+        handlers.shutdownNow();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Config config = Config.parse(args);
+        LedgerSimulator simulator = start(config);
+        Runtime.getRuntime().addShutdownHook(new Thread(simulator::close));
+        System.out.println("Registre simulé démarré sur " + simulator.baseUrl() + " - " + config);
+    }
+
+    /**
+     * Paramètres de la simulation
+     */
+    public record Config(
+            int port,
+            LatencyDistribution latency,
+            double errorRate,
+            long confirmationDelayMillis,
+            double requestsPerSecond,
+            long burst
+    ) {
+
+        public static Config defaults() {
+            return new Config(8099, LatencyDistribution.parse("constant:50"), 0, 0, 1000, 1000);
+        }
+
+        /**
+         * Lit des arguments {@code --cle=valeur} ; les clés absentes gardent leur valeur par défaut
+         */
+        public static Config parse(String... args) {
+            Config config = defaults();
+            for (String arg : args) {
+                String[] option = arg.replaceFirst("^--", "").split("=", 2);
+                if (option.length != 2) {
+                    throw new IllegalArgumentException("Option invalide: " + arg);
+                }
+                String value = option[1];
+                config = switch (option[0]) {
+                    case "port" -> new Config(Integer.parseInt(value), config.latency, config.errorRate,
+                            config.confirmationDelayMillis, config.requestsPerSecond, config.burst);
+                    case "latency" -> new Config(config.port, LatencyDistribution.parse(value), config.errorRate,
+                            config.confirmationDelayMillis, config.requestsPerSecond, config.burst);
+                    case "error-rate" -> new Config(config.port, config.latency, Double.parseDouble(value),
+                            config.confirmationDelayMillis, config.requestsPerSecond, config.burst);
+                    case "confirmation-delay" -> new Config(config.port, config.latency, config.errorRate,
+                            Long.parseLong(value), config.requestsPerSecond, config.burst);
+                    case "requests-per-second" -> new Config(config.port, config.latency, config.errorRate,
+                            config.confirmationDelayMillis, Double.parseDouble(value), config.burst);
+                    case "burst" -> new Config(config.port, config.latency, config.errorRate,
+                            config.confirmationDelayMillis, config.requestsPerSecond, Long.parseLong(value));
+                    default -> throw new IllegalArgumentException("Option inconnue: " + option[0]);
+                };
+            }
+            return config;
+        }
+    }
+
+    /**
+     * Distribution de latence : {@code constant:ms}, {@code uniform:min:max} ou {@code lognormal:mediane:sigma}
+     */
+    public record LatencyDistribution(String kind, double first, double second) {
+
+        public static LatencyDistribution parse(String spec) {
+            String[] parts = spec.split(":");
+            LatencyDistribution distribution = switch (parts[0]) {
+                case "constant" -> new LatencyDistribution("constant", Double.parseDouble(parts[1]), 0);
+                case "uniform", "lognormal" -> new LatencyDistribution(parts[0],
+                        Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                default -> throw new IllegalArgumentException("Distribution de latence inconnue: " + spec);
+            };
+            return distribution;
+        }
+
+        public long sampleMillis() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            double millis = switch (kind) {
+                case "uniform" -> first + random.nextDouble() * (second - first);
+                case "lognormal" -> first * Math.exp(second * random.nextGaussian());
+                default -> first;
+            };
+            return Math.max(0, Math.round(millis));
+        }
+    }
+
+    private record Transaction(String metadata, long confirmedAt) {
+    }
+
+    private record Response(int status, String body) {
+    }
+
+    @FunctionalInterface
+    private interface ResponseSupplier {
+        Response get();
+    }
+}
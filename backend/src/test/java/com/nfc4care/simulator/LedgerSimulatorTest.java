@@ -0,0 +1,94 @@
+package com.nfc4care.simulator;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LedgerSimulatorTest {
+
+    private static final String METADATA = "{\"merkle_root\":\"abc\",\"record_count\":3}";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void submittedMetadataCanBeReadBack() throws Exception {
+        try (LedgerSimulator simulator = LedgerSimulator.start(config(0, 0, 1000, 1000))) {
+            HttpResponse<String> submitted = submit(simulator);
+            assertEquals(200, submitted.statusCode());
+
+            HttpResponse<String> metadata = get(simulator, "/tx/" + transactionHash(submitted) + "/metadata");
+
+            assertEquals(200, metadata.statusCode());
+            assertEquals(METADATA, metadata.body());
+        }
+    }
+
+    @Test
+    void metadataIsHiddenUntilConfirmed() throws Exception {
+        try (LedgerSimulator simulator = LedgerSimulator.start(config(0, 300, 1000, 1000))) {
+            String path = "/tx/" + transactionHash(submit(simulator)) + "/metadata";
+
+            assertEquals(404, get(simulator, path).statusCode());
+            Thread.sleep(400);
+            assertEquals(200, get(simulator, path).statusCode());
+        }
+    }
+
+    @Test
+    void callsBeyondTheQuotaAreThrottled() throws Exception {
+        try (LedgerSimulator simulator = LedgerSimulator.start(config(0, 0, 0.001, 2))) {
+            assertEquals(200, submit(simulator).statusCode());
+            assertEquals(200, submit(simulator).statusCode());
+
+            assertEquals(429, submit(simulator).statusCode());
+            assertTrue(get(simulator, "/stats").body().contains("\"throttled\":1"));
+        }
+    }
+
+    @Test
+    void injectsErrors() throws Exception {
+        try (LedgerSimulator simulator = LedgerSimulator.start(config(1, 0, 1000, 1000))) {
+            assertEquals(500, submit(simulator).statusCode());
+        }
+    }
+
+    @Test
+    void parsesCommandLineOptions() {
+        LedgerSimulator.Config config = LedgerSimulator.Config.parse("--port=9000", "--latency=uniform:20:200",
+                "--error-rate=0.05", "--confirmation-delay=5000", "--requests-per-second=10", "--burst=500");
+
+        assertEquals(new LedgerSimulator.Config(9000, new LedgerSimulator.LatencyDistribution("uniform", 20, 200),
+                0.05, 5000, 10, 500), config);
+        assertThrows(IllegalArgumentException.class, () -> LedgerSimulator.Config.parse("--inconnue=1"));
+        assertThrows(IllegalArgumentException.class, () -> LedgerSimulator.LatencyDistribution.parse("pareto:1:2"));
+    }
+
+    private static LedgerSimulator.Config config(double errorRate, long confirmationDelayMillis,
+                                                 double requestsPerSecond, long burst) {
+        // Port 0 : port libre choisi par le système
+        return new LedgerSimulator.Config(0, LedgerSimulator.LatencyDistribution.parse("constant:0"),
+                errorRate, confirmationDelayMillis, requestsPerSecond, burst);
+    }
+
+    private HttpResponse<String> submit(LedgerSimulator simulator) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(simulator.baseUrl() + "/tx/submit"))
+                .POST(HttpRequest.BodyPublishers.ofString(METADATA))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(LedgerSimulator simulator, String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(simulator.baseUrl() + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String transactionHash(HttpResponse<String> submitted) {
+        return submitted.body().replaceAll(".*\"tx_hash\":\"([0-9a-f]+)\".*", "$1");
+    }
+}
@@ -49,10 +49,10 @@ try {
 }
 
 # Appliquer les migrations de base de données
+# (init.sql est exécuté par le conteneur sur un volume vide ; le rejouer dupliquerait les consultations de démonstration)
 Write-Host "📊 Application des migrations de base de données..." -ForegroundColor Yellow
 try {
-    docker-compose exec -T postgres psql -U nfc4care -d nfc4care -f /docker-entrypoint-initdb.d/01-init.sql
-    docker-compose exec -T postgres psql -U nfc4care -d nfc4care -f /docker-entrypoint-initdb.d/02-tokens.sql
+    Get-Content "backend/database/tokens.sql" -Raw | docker-compose exec -T postgres psql -v ON_ERROR_STOP=1 -U nfc4care -d nfc4care
     Write-Host "✅ Migrations appliquées" -ForegroundColor Green
 } catch {
     Write-Host "⚠️  Erreur lors de l'application des migrations (peut être normal si déjà appliquées)" -ForegroundColor Yellow
@@ -257,8 +257,12 @@ class ApiService {
   }
 
   // Patients
-  async getPatients(): Promise<ApiResponse<any[]>> {
-    return this.makeRequest(`${API_BASE_URL}/patients`);
+  async getPatients(cursor?: string, limit = 50): Promise<ApiResponse<{ items: any[]; nextCursor: string | null; limit: number }>> {
+    const params = new URLSearchParams({ limit: String(limit) });
+    if (cursor) {
+      params.set('cursor', cursor);
+    }
+    return this.makeRequest(`${API_BASE_URL}/patients?${params.toString()}`);
   }
 
   async getPatientById(id: string): Promise<ApiResponse<any>> {
@@ -269,6 +273,15 @@ class ApiService {
     return this.makeRequest(`${API_BASE_URL}/patients/nfc/${nfcId}`);
   }
 
+  // Écran patient en un appel : { patient, dossierMedical: { allergies, traitementsEnCours, ... } | null, dernieresConsultations }
+  async getPatientSummary(patientId: string): Promise<ApiResponse<any>> {
+    return this.makeRequest(`${API_BASE_URL}/patients/${patientId}/summary`);
+  }
+
+  async getPatientSummaryByNFC(nfcId: string): Promise<ApiResponse<any>> {
+    return this.makeRequest(`${API_BASE_URL}/patients/nfc/${nfcId}/summary`);
+  }
+
   async searchPatients(query: string): Promise<ApiResponse<any[]>> {
     if (!query.trim()) {
       return { data: [], success: true };
@@ -304,6 +317,14 @@ class ApiService {
     return this.makeRequest(url);
   }
 
+  async getConsultationTimeline(patientId: string, cursor?: string, limit = 20): Promise<ApiResponse<{ items: any[]; nextCursor: string | null; limit: number }>> {
+    const params = new URLSearchParams({ patientId, limit: String(limit) });
+    if (cursor) {
+      params.set('cursor', cursor);
+    }
+    return this.makeRequest(`${API_BASE_URL}/consultations/timeline?${params.toString()}`);
+  }
+
   async createConsultation(consultationData: any): Promise<ApiResponse<any>> {
     return this.makeRequest(`${API_BASE_URL}/consultations`, {
       method: 'POST',
@@ -335,6 +356,36 @@ class ApiService {
     return this.makeRequest(`${API_BASE_URL}/blockchain/verify/${id}`);
   }
 
+  // Vérification par lot : chaque résultat (une ligne NDJSON) est transmis dès sa réception
+  async verifyIntegrityBatch(
+    type: 'CONSULTATION' | 'DOSSIER_MEDICAL',
+    ids: number[],
+    onResult: (report: any) => void
+  ): Promise<ApiResponse<void>> {
+    const response = await fetch(`${API_BASE_URL}/blockchain/verify`, {
+      method: 'POST',
+      headers: { ...this.getAuthHeaders(), Accept: 'application/x-ndjson' },
+      body: JSON.stringify({ type, ids }),
+    });
+    if (!response.ok || !response.body) {
+      return this.handleResponse<void>(response);
+    }
+
+    const reader = response.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = '';
+    for (;;) {
+      const { done, value } = await reader.read();
+      buffer += decoder.decode(value, { stream: !done });
+      const lines = buffer.split('\n');
+      buffer = done ? '' : lines.pop() ?? '';
+      lines.filter(line => line.trim()).forEach(line => onResult(JSON.parse(line)));
+      if (done) {
+        return { success: true };
+      }
+    }
+  }
+
   async getBlockchainHistory(patientId: string): Promise<ApiResponse<any[]>> {
     return this.makeRequest(`${API_BASE_URL}/blockchain/history/${patientId}`);
   }
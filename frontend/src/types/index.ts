@@ -49,7 +49,8 @@ export interface MedicalRecord {
 export interface Consultation {
   id: number;
   dossierMedicalId: number;
-  professionnelId: number;
+  patient?: { id: number; nom: string; prenom: string; numeroDossier: string };
+  professionnel?: { id: number; nom: string; prenom: string; specialite?: string };
   dateConsultation: string;
   motifConsultation: string;
   examenClinique?: string;